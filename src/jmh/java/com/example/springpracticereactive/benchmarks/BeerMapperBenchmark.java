@@ -0,0 +1,59 @@
+package com.example.springpracticereactive.benchmarks;
+
+import com.example.springpracticereactive.domain.Beer;
+import com.example.springpracticereactive.mappers.BeerMapper;
+import com.example.springpracticereactive.model.BeerDTO;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the MapStruct conversions done for every Beer read or written through the API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerMapperBenchmark {
+
+    private BeerMapper beerMapper;
+    private Beer beer;
+    private BeerDTO beerDTO;
+
+    /**
+     * Creates the generated mapper and the entity and DTO to convert.
+     */
+    @Setup
+    public void setUp() {
+        beerMapper = Mappers.getMapper(BeerMapper.class);
+
+        var now = LocalDateTime.now();
+        beer = new Beer(1, "Galaxy Cat", "Pale Ale", "12346", 454, new BigDecimal("12.99"), 0, now, now);
+        beerDTO = beerMapper.beerToBeerDTO(beer);
+    }
+
+    /**
+     * Entity to DTO, done for every beer returned by the API.
+     *
+     * @return The mapped DTO, returned so the JIT cannot eliminate the call.
+     */
+    @Benchmark
+    public BeerDTO beerToBeerDTO() {
+        return beerMapper.beerToBeerDTO(beer);
+    }
+
+    /**
+     * DTO to entity, done for every beer written through the API.
+     *
+     * @return The mapped entity, returned so the JIT cannot eliminate the call.
+     */
+    @Benchmark
+    public Beer beerDTOToBeer() {
+        return beerMapper.beerDTOToBeer(beerDTO);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.springpracticereactive.benchmarks;
+
+import com.example.springpracticereactive.bootstrap.SyntheticDataGenerator;
+import com.example.springpracticereactive.domain.Beer;
+import com.example.springpracticereactive.model.BeerSearchResultDTO;
+import com.example.springpracticereactive.services.impl.BeerSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures searches and updates of the trigram index over 1M synthetic beers.
+ * The generated names only combine a few dozen words, so every name gets a unique base-36 suffix
+ * to give the index a realistic spread of rare trigrams next to the very common ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class BeerSearchIndexBenchmark {
+
+    private static final int BEERS = 1_000_000;
+
+    private BeerSearchIndex index;
+    private Beer renamed;
+    private int version;
+
+    /**
+     * Builds the index from the generated beers, with the ids seeding gives them in an empty database.
+     */
+    @Setup
+    public void setUp() {
+        var generator = new SyntheticDataGenerator(null, null, 42, 500);
+        index = new BeerSearchIndex(null);
+        for (int i = 0; i < BEERS; i++) {
+            index.beerSaved(withName(generator.beer(i), i + 1, 0));
+        }
+        renamed = withName(generator.beer(BEERS / 2), BEERS / 2 + 1, 0);
+    }
+
+    /**
+     * A misspelled name with a rare token, the typical customer search.
+     *
+     * @return The results, returned so the JIT cannot eliminate the call.
+     */
+    @Benchmark
+    public List<BeerSearchResultDTO> searchMisspelled() {
+        return index.search("hazzy cat 2n9c", 10);
+    }
+
+    /**
+     * A query made of common words only, whose posting lists cover a large part of the index.
+     *
+     * @return The results, returned so the JIT cannot eliminate the call.
+     */
+    @Benchmark
+    public List<BeerSearchResultDTO> searchCommon() {
+        return index.search("pale ale", 10);
+    }
+
+    /**
+     * Re-indexes one beer, as done for every write through the service layer.
+     */
+    @Benchmark
+    public void update() {
+        index.beerSaved(new Beer(renamed.id(), renamed.beerName(), renamed.beerStyle(), renamed.upc(),
+                renamed.quantityOnHand(), renamed.price(), ++version, null, null));
+    }
+
+    private static Beer withName(Beer beer, int id, int version) {
+        return new Beer(id, beer.beerName() + " " + Integer.toString(id, 36), beer.beerStyle(), beer.upc(),
+                beer.quantityOnHand(), beer.price(), version, null, null);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.springpracticereactive.benchmarks;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * BenchmarkTokens lets the HTTP benchmarks authenticate against the application they start.
+ * A signing key is generated and published to the application as a local JWK set, and the tokens
+ * are signed with it.
+ */
+final class BenchmarkTokens {
+
+    /**
+     * Issuer of the tokens, which the application is started to accept.
+     */
+    static final String ISSUER = "http://localhost/benchmark";
+
+    private final RSAKey key;
+    private final Path jwkSetFile;
+
+    private BenchmarkTokens(RSAKey key, Path jwkSetFile) {
+        this.key = key;
+        this.jwkSetFile = jwkSetFile;
+    }
+
+    /**
+     * Generates a signing key and writes its public JWK set to a temporary file.
+     *
+     * @return The tokens, to be closed with {@link #delete()}.
+     * @throws IOException   if the JWK set cannot be written.
+     * @throws JOSEException if the signing key cannot be generated.
+     */
+    static BenchmarkTokens create() throws IOException, JOSEException {
+        var key = new RSAKeyGenerator(2048).keyID("benchmark").generate();
+        var jwkSetFile = Files.createTempFile("jwks", ".json");
+        Files.writeString(jwkSetFile, new JWKSet(key).toString());
+        return new BenchmarkTokens(key, jwkSetFile);
+    }
+
+    /**
+     * Returns the command line arguments making the application accept the tokens.
+     *
+     * @return The arguments.
+     */
+    List<String> applicationArguments() {
+        return List.of(
+                "--spring.security.oauth2.resourceserver.jwt.issuer-uri=" + ISSUER,
+                "--security.jwt.jwk-set.location=" + jwkSetFile.toUri(),
+                "--security.jwt.jwk-set.refresh-interval=0s"
+        );
+    }
+
+    /**
+     * Signs a token valid for one hour.
+     *
+     * @return The serialized token.
+     */
+    String sign() {
+        var encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key)));
+        var now = Instant.now();
+        var claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject("benchmark")
+                .issuedAt(now)
+                .expiresAt(now.plus(Duration.ofHours(1)))
+                .build();
+        var header = JwsHeader.with(SignatureAlgorithm.RS256).keyId(key.getKeyID()).build();
+        return encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+    /**
+     * Deletes the JWK set file.
+     *
+     * @throws IOException if the file cannot be deleted.
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(jwkSetFile);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.springpracticereactive.benchmarks;
+
+import com.example.springpracticereactive.SpringPracticeReactiveApplication;
+import com.example.springpracticereactive.controllers.BeerController;
+import com.nimbusds.jose.JOSEException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of the beer read endpoints with and without the R2DBC connection pool.
+ * <p>
+ * The application is started once per value of {@code pooled} and driven over HTTP from several threads at once,
+ * so that every request needs a connection of its own. Caching is switched off and the lookups by id spread over
+ * {@value #BEERS} seeded beers, so each lookup reaches the database instead of sharing a query with another one.
+ * Requests are authenticated with {@link BenchmarkTokens}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ConnectionPoolBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static final int BEERS = 10_000;
+
+    /**
+     * Whether the ConnectionFactory is wrapped in the r2dbc-pool ConnectionPool.
+     */
+    @Param({"true", "false"})
+    public boolean pooled;
+
+    private BenchmarkTokens tokens;
+    private ConfigurableApplicationContext context;
+    private WebClient webClient;
+
+    /**
+     * Starts the application with the pool switched on or off and creates an authenticated client.
+     *
+     * @throws IOException   if the JWK set cannot be written.
+     * @throws JOSEException if the signing key cannot be generated.
+     */
+    @Setup
+    public void setUp() throws IOException, JOSEException {
+        tokens = BenchmarkTokens.create();
+
+        // Passed as command line arguments, which take precedence over application.properties.
+        var args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.r2dbc.pool.enabled=" + pooled,
+                "--spring.cache.type=none",
+                "--seed.beers=" + BEERS,
+                "--logbook.sampling.enabled=true",
+                "--logbook.sampling.rate=0",
+                "--logging.level.root=warn"
+        ));
+        args.addAll(tokens.applicationArguments());
+        context = new SpringApplicationBuilder(SpringPracticeReactiveApplication.class)
+                .run(args.toArray(String[]::new));
+
+        var port = context.getEnvironment().getRequiredProperty("local.server.port");
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.sign())
+                .build();
+    }
+
+    /**
+     * Stops the application.
+     *
+     * @throws IOException if the JWK set cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        tokens.delete();
+    }
+
+    /**
+     * The first page of {@code GET /api/v2/beer}.
+     *
+     * @return The response.
+     */
+    @Benchmark
+    public ResponseEntity<String> listFirstPage() {
+        return webClient.get()
+                .uri(uri -> uri.path(BeerController.BEER_PATH).queryParam("limit", 50).build())
+                .retrieve()
+                .toEntity(String.class)
+                .block(TIMEOUT);
+    }
+
+    /**
+     * {@code GET /api/v2/beer/{id}} for a random seeded beer.
+     *
+     * @return The response.
+     */
+    @Benchmark
+    public ResponseEntity<String> getBeerById() {
+        return webClient.get()
+                .uri(BeerController.BEER_PATH_ID, ThreadLocalRandom.current().nextInt(1, BEERS + 1))
+                .retrieve()
+                .toEntity(String.class)
+                .block(TIMEOUT);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.springpracticereactive.benchmarks;
+
+import com.example.springpracticereactive.model.BeerDTO;
+import com.example.springpracticereactive.model.CustomerDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Jackson encoding of the DTOs written by the API, including their BigDecimal and
+ * LocalDateTime fields, and the decoding of a BeerDTO request body.
+ * The ObjectMapper is configured like the one Spring Boot gives the WebFlux codecs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private BeerDTO beerDTO;
+    private CustomerDTO customerDTO;
+    private byte[] beerJson;
+
+    /**
+     * Creates the ObjectMapper and the DTOs to encode.
+     *
+     * @throws JsonProcessingException if the BeerDTO cannot be encoded.
+     */
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        var now = LocalDateTime.now();
+        beerDTO = new BeerDTO(1, "Galaxy Cat", "Pale Ale", "12346", "454", new BigDecimal("12.99"), 0, now, now);
+        customerDTO = new CustomerDTO(1, "John Doe", 0, now, now);
+        beerJson = objectMapper.writeValueAsBytes(beerDTO);
+    }
+
+    /**
+     * Encodes a BeerDTO as returned by the beer endpoints.
+     *
+     * @return The encoded JSON.
+     * @throws JsonProcessingException if the DTO cannot be encoded.
+     */
+    @Benchmark
+    public byte[] encodeBeer() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(beerDTO);
+    }
+
+    /**
+     * Encodes a CustomerDTO as returned by the customer endpoints.
+     *
+     * @return The encoded JSON.
+     * @throws JsonProcessingException if the DTO cannot be encoded.
+     */
+    @Benchmark
+    public byte[] encodeCustomer() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customerDTO);
+    }
+
+    /**
+     * Decodes a BeerDTO as received by the create and update endpoints.
+     *
+     * @return The decoded DTO.
+     * @throws IOException if the JSON cannot be decoded.
+     */
+    @Benchmark
+    public BeerDTO decodeBeer() throws IOException {
+        return objectMapper.readValue(beerJson, BeerDTO.class);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.springpracticereactive.benchmarks;
+
+import com.example.springpracticereactive.model.BeerDTO;
+import com.example.springpracticereactive.model.CustomerDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Bean Validation of the {@code @NotBlank} and {@code @Size} constraints checked
+ * on every DTO written through the API, for valid input and for input that is rejected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private BeerDTO validBeer;
+    private BeerDTO invalidBeer;
+    private CustomerDTO validCustomer;
+
+    /**
+     * Creates the validator and the DTOs to validate.
+     */
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        validBeer = new BeerDTO(null, "Galaxy Cat", "Pale Ale", "12346", "454", new BigDecimal("12.99"), null, null, null);
+        invalidBeer = new BeerDTO(null, "", "", "12346789012345678901234567890", "454", new BigDecimal("12.99"), null, null, null);
+        validCustomer = new CustomerDTO("John Doe");
+    }
+
+    /**
+     * Closes the validator factory.
+     */
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    /**
+     * Validates a BeerDTO that satisfies every constraint.
+     *
+     * @return The (empty) set of violations.
+     */
+    @Benchmark
+    public Set<ConstraintViolation<BeerDTO>> validateValidBeer() {
+        return validator.validate(validBeer);
+    }
+
+    /**
+     * Validates a BeerDTO that violates several constraints, which also pays for the message interpolation.
+     *
+     * @return The set of violations.
+     */
+    @Benchmark
+    public Set<ConstraintViolation<BeerDTO>> validateInvalidBeer() {
+        return validator.validate(invalidBeer);
+    }
+
+    /**
+     * Validates a CustomerDTO that satisfies every constraint.
+     *
+     * @return The (empty) set of violations.
+     */
+    @Benchmark
+    public Set<ConstraintViolation<CustomerDTO>> validateValidCustomer() {
+        return validator.validate(validCustomer);
+    }
+}
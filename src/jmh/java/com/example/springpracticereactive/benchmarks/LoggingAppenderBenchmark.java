@@ -0,0 +1,99 @@
+package com.example.springpracticereactive.benchmarks;
+
+import com.example.springpracticereactive.SpringPracticeReactiveApplication;
+import com.example.springpracticereactive.controllers.BeerController;
+import com.nimbusds.jose.JOSEException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of {@code GET /api/v2/beer/{id}} with the asynchronous console appender
+ * and with the synchronous one (the {@code sync-logging} profile).
+ * <p>
+ * Logbook is set to log every exchange on the request thread, so each request produces two JSON log
+ * events. Requests are authenticated with {@link BenchmarkTokens}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class LoggingAppenderBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * The console appender used by the root logger.
+     */
+    @Param({"async", "sync"})
+    public String appender;
+
+    private BenchmarkTokens tokens;
+    private ConfigurableApplicationContext context;
+    private WebClient webClient;
+
+    /**
+     * Starts the application with the chosen appender and creates an authenticated client.
+     *
+     * @throws IOException   if the JWK set cannot be written.
+     * @throws JOSEException if the signing key cannot be generated.
+     */
+    @Setup
+    public void setUp() throws IOException, JOSEException {
+        tokens = BenchmarkTokens.create();
+
+        // Passed as command line arguments, which take precedence over application.properties.
+        var args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.profiles.active=" + ("sync".equals(appender) ? "sync-logging" : "default"),
+                "--logbook.sampling.enabled=false",
+                "--logbook.async.enabled=false"
+        ));
+        args.addAll(tokens.applicationArguments());
+        context = new SpringApplicationBuilder(SpringPracticeReactiveApplication.class)
+                .run(args.toArray(String[]::new));
+
+        var port = context.getEnvironment().getRequiredProperty("local.server.port");
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.sign())
+                .build();
+    }
+
+    /**
+     * Stops the application.
+     *
+     * @throws IOException if the JWK set cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        tokens.delete();
+    }
+
+    /**
+     * One request for a cached beer, so that the time spent logging dominates.
+     *
+     * @return The response.
+     */
+    @Benchmark
+    public ResponseEntity<Void> getBeerById() {
+        return webClient.get()
+                .uri(BeerController.BEER_PATH_ID, 2)
+                .retrieve()
+                .toBodilessEntity()
+                .block(TIMEOUT);
+    }
+}
@@ -4,30 +4,53 @@ import com.example.springpracticereactive.domain.Beer;
 import com.example.springpracticereactive.domain.Customer;
 import com.example.springpracticereactive.repositories.BeerRepository;
 import com.example.springpracticereactive.repositories.CustomerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * BootstrapData is a Spring Component that initializes the database with sample data
  * for Beer and Customer entities when the application starts.
+ * <p>
+ * By default three sample beers and customers are inserted. Setting {@code seed.beers} or
+ * {@code seed.customers} replaces them with that many synthetic rows from {@link SyntheticDataGenerator}.
+ * Seeding blocks the runner, so the application only reports itself ready once the data is in place.
  */
 @Component
 public class BootstrapData implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(BootstrapData.class);
+
     private final BeerRepository beerRepository;
     private final CustomerRepository customerRepository;
+    private final SyntheticDataGenerator generator;
+    private final int seedBeers;
+    private final int seedCustomers;
 
     /**
      * Constructor for BootstrapData.
      *
      * @param beerRepository     Repository for Beer entities.
      * @param customerRepository Repository for Customer entities.
+     * @param generator          Generator for synthetic rows.
+     * @param seedBeers          The number of synthetic beers to insert, 0 for the sample beers.
+     * @param seedCustomers      The number of synthetic customers to insert, 0 for the sample customers.
      */
-    public BootstrapData(BeerRepository beerRepository, CustomerRepository customerRepository) {
+    public BootstrapData(BeerRepository beerRepository, CustomerRepository customerRepository,
+                         SyntheticDataGenerator generator,
+                         @Value("${seed.beers:0}") int seedBeers,
+                         @Value("${seed.customers:0}") int seedCustomers) {
         this.beerRepository = beerRepository;
         this.customerRepository = customerRepository;
+        this.generator = generator;
+        this.seedBeers = seedBeers;
+        this.seedCustomers = seedCustomers;
     }
 
     /**
@@ -41,66 +64,62 @@ public class BootstrapData implements CommandLineRunner {
         loadBeerData();
         loadCustomerData();
 
-        // Log the count and details of Beer entities in the database.
-        beerRepository.count().subscribe(count -> System.out.println("Beer Count: " + count));
-        beerRepository.findAll().subscribe(beer -> System.out.println("Beer: " + beer));
-
-        System.out.println();
-
-        // Log the count and details of Customer entities in the database.
-        customerRepository.count().subscribe(count -> System.out.println("Customer Count: " + count));
-        customerRepository.findAll().subscribe(customer -> System.out.println("Customer: " + customer));
+        log.info("Beer Count: {}", beerRepository.count().block());
+        log.info("Customer Count: {}", customerRepository.count().block());
     }
 
     /**
-     * Loads sample Beer data into the database if no Beer entities exist.
+     * Loads Beer data into the database if no Beer entities exist.
      */
     private void loadBeerData() {
-        beerRepository.count().subscribe(count -> {
-            if (count == 0) {
-                var beer1 = new Beer(
+        var sample = List.of(
+                new Beer(
                         "Galaxy Cat",
                         "Pale Ale",
                         "12346",
                         454,
                         new BigDecimal("12.99")
-                );
-
-                var beer2 = new Beer(
+                ),
+                new Beer(
                         "Cranky Pants",
                         "Pale Ale",
                         "129686",
                         84,
                         new BigDecimal("11.99")
-                );
-
-                var beer3 = new Beer(
+                ),
+                new Beer(
                         "Sunshine City",
                         "IPA",
                         "129816",
                         94,
                         new BigDecimal("14.99")
-                );
+                )
+        );
 
-                // Save sample Beer entities to the database.
-                beerRepository.save(beer1).subscribe();
-                beerRepository.save(beer2).subscribe();
-                beerRepository.save(beer3).subscribe();
-            }
-        });
+        beerRepository.count()
+                .filter(count -> count == 0)
+                .flatMap(_ -> seedBeers > 0
+                        ? generator.seedBeers(seedBeers).then()
+                        // saveAll inserts one row at a time, so the sample ids follow declaration order.
+                        : beerRepository.saveAll(sample).then())
+                .block();
     }
 
     /**
-     * Loads sample Customer data into the database if no Customer entities exist.
+     * Loads Customer data into the database if no Customer entities exist.
      */
     private void loadCustomerData() {
-        customerRepository.count().subscribe(count -> {
-            if (count == 0) {
-                // Save sample Customer entities to the database.
-                customerRepository.save(new Customer("John Doe")).subscribe();
-                customerRepository.save(new Customer("Jane Smith")).subscribe();
-                customerRepository.save(new Customer("Bob Johnson")).subscribe();
-            }
-        });
+        var sample = List.of(
+                new Customer("John Doe"),
+                new Customer("Jane Smith"),
+                new Customer("Bob Johnson")
+        );
+
+        customerRepository.count()
+                .filter(count -> count == 0)
+                .flatMap(_ -> seedCustomers > 0
+                        ? generator.seedCustomers(seedCustomers).then()
+                        : customerRepository.saveAll(sample).then())
+                .block();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,184 @@
+package com.example.springpracticereactive.bootstrap;
+
+import com.example.springpracticereactive.domain.Beer;
+import com.example.springpracticereactive.domain.Customer;
+import com.example.springpracticereactive.repositories.BeerRepository;
+import com.example.springpracticereactive.repositories.CustomerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * SyntheticDataGenerator fills the database with generated Beer and Customer rows for performance testing.
+ * <p>
+ * Row {@code n} is derived from the random seed and {@code n} alone, so a given seed always produces the
+ * same rows. Rows are written with multi-row INSERTs of {@code seed.batch-size} rows, one batch after another in
+ * index order, so the ids assigned by the database follow the index as well: seeding an empty table whose
+ * identity starts at 1 gives row {@code n} the id {@code n + 1}. The next batches are generated while one is
+ * being written, but generation never runs more than a few batches ahead of the database.
+ */
+@Component
+public class SyntheticDataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(5);
+
+    private static final String[] BEER_ADJECTIVES = {
+            "Hazy", "Golden", "Dark", "Crisp", "Wild", "Hoppy", "Smoky", "Bitter", "Velvet", "Midnight",
+            "Rusty", "Sunny", "Frosty", "Copper", "Juicy", "Old", "Little", "Big", "Lazy", "Cosmic"
+    };
+    private static final String[] BEER_NOUNS = {
+            "Cat", "Pants", "City", "River", "Fox", "Harbor", "Owl", "Canyon", "Anchor", "Meadow",
+            "Lantern", "Badger", "Comet", "Orchard", "Summit", "Tide", "Raven", "Forge", "Garden", "Dust"
+    };
+    private static final String[] BEER_STYLES = {
+            "IPA", "Pale Ale", "Lager", "Pilsner", "Stout", "Porter", "Wheat", "Saison", "Sour", "Gose"
+    };
+    private static final String[] FIRST_NAMES = {
+            "John", "Jane", "Bob", "Alice", "Maria", "David", "Sarah", "Michael", "Laura", "James",
+            "Emma", "Daniel", "Olivia", "Lucas", "Sofia", "Noah", "Mia", "Liam", "Ava", "Ethan"
+    };
+    private static final String[] LAST_NAMES = {
+            "Doe", "Smith", "Johnson", "Brown", "Garcia", "Miller", "Davis", "Martinez", "Lopez", "Wilson",
+            "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Thompson", "White", "Harris"
+    };
+
+    private final BeerRepository beerRepository;
+    private final CustomerRepository customerRepository;
+    private final long randomSeed;
+    private final int batchSize;
+
+    /**
+     * Constructor for SyntheticDataGenerator.
+     *
+     * @param beerRepository     Repository for Beer entities.
+     * @param customerRepository Repository for Customer entities.
+     * @param randomSeed         The seed the generated rows are derived from.
+     * @param batchSize          The number of rows per INSERT statement.
+     */
+    public SyntheticDataGenerator(BeerRepository beerRepository, CustomerRepository customerRepository,
+                                  @Value("${seed.random-seed:42}") long randomSeed,
+                                  @Value("${seed.batch-size:500}") int batchSize) {
+        this.beerRepository = beerRepository;
+        this.customerRepository = customerRepository;
+        this.randomSeed = randomSeed;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Inserts generated beers.
+     *
+     * @param rows The number of beers to insert.
+     * @return A Mono emitting the number of beers inserted once all are written.
+     */
+    public Mono<Long> seedBeers(int rows) {
+        return seed("beer", rows, this::beer, batch -> beerRepository.insertAll(batch).count());
+    }
+
+    /**
+     * Inserts generated customers.
+     *
+     * @param rows The number of customers to insert.
+     * @return A Mono emitting the number of customers inserted once all are written.
+     */
+    public Mono<Long> seedCustomers(int rows) {
+        return seed("customer", rows, this::customer, batch -> customerRepository.insertAll(batch).count());
+    }
+
+    /**
+     * Generates the beer with the given index.
+     * The UPC is a 12 digit code derived from the index, so it is unique within the generated data.
+     *
+     * @param index The index of the row.
+     * @return The beer, without id.
+     */
+    public Beer beer(int index) {
+        var random = random(index);
+        var name = pick(BEER_ADJECTIVES, random) + " " + pick(BEER_NOUNS, random);
+        var price = BigDecimal.valueOf(random.nextInt(199, 2_000), 2);
+        return new Beer(
+                name,
+                pick(BEER_STYLES, random),
+                String.format("8%011d", index),
+                random.nextInt(0, 1_000),
+                price
+        );
+    }
+
+    /**
+     * Generates the customer with the given index.
+     *
+     * @param index The index of the row.
+     * @return The customer, without id.
+     */
+    public Customer customer(int index) {
+        var random = random(index);
+        return new Customer(pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random));
+    }
+
+    /**
+     * Generates rows and writes them in batches.
+     *
+     * @param table     The name of the table, for the progress log.
+     * @param rows      The number of rows to write.
+     * @param generator Generates the row with the given index.
+     * @param insert    Writes one batch, emitting the number of rows written.
+     * @param <T>       The row type.
+     * @return A Mono emitting the number of rows written once all are written.
+     */
+    <T> Mono<Long> seed(String table, int rows, IntFunction<T> generator, Function<List<T>, Mono<Long>> insert) {
+        return Mono.defer(() -> {
+            var startNanos = System.nanoTime();
+            var inserted = new AtomicLong();
+            var lastReportNanos = new AtomicLong(startNanos);
+            log.info("Seeding {} {} rows in batches of {}", rows, table, batchSize);
+
+            return Flux.range(0, rows)
+                    .map(generator::apply)
+                    .buffer(batchSize)
+                    // One INSERT at a time: concurrent batches would interleave their AUTO_INCREMENT ids.
+                    .concatMap(insert)
+                    .doOnNext(count -> {
+                        var total = inserted.addAndGet(count);
+                        var now = System.nanoTime();
+                        var last = lastReportNanos.get();
+                        if (now - last >= PROGRESS_INTERVAL.toNanos() && lastReportNanos.compareAndSet(last, now)) {
+                            log.info("Seeded {}/{} {} rows, {} rows/s", total, rows, table, rate(total, startNanos, now));
+                        }
+                    })
+                    .then(Mono.fromSupplier(() -> {
+                        var total = inserted.get();
+                        var now = System.nanoTime();
+                        log.info("Seeded {} {} rows in {} ms, {} rows/s", total, table,
+                                Duration.ofNanos(now - startNanos).toMillis(), rate(total, startNanos, now));
+                        return total;
+                    }));
+        });
+    }
+
+    private SplittableRandom random(int index) {
+        // Mixing the index with a large odd constant keeps neighbouring rows uncorrelated.
+        return new SplittableRandom(randomSeed ^ (index * 0x9E3779B97F4A7C15L));
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static long rate(long rows, long startNanos, long nowNanos) {
+        var nanos = Math.max(1, nowNanos - startNanos);
+        return rows * 1_000_000_000L / nanos;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.springpracticereactive.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * CacheConfig is a Spring configuration class that enables the read-through caches
+ * in front of the service layer.
+ * <p>
+ * Cache names, size and TTL come from the {@code spring.cache.*} properties. The Caffeine caches run in
+ * async mode, which is what allows {@code @Cacheable} on methods returning {@code Mono}: the cached value
+ * is a future completed by the Mono. The service methods are cached with {@code sync = true}, so a miss goes
+ * through {@code AsyncCache.get} and concurrent misses for one key wait for the same load instead of each
+ * invoking the method.
+ * Hit, miss and eviction counts are published by Spring Boot as the {@code cache.*} actuator metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Name of the cache holding BeerDTO objects by id.
+     */
+    public static final String BEER_CACHE = "beers";
+
+    /**
+     * Name of the cache holding CustomerDTO objects by id.
+     */
+    public static final String CUSTOMER_CACHE = "customers";
+
+    /**
+     * Name of the cache holding BeerDTO objects by UPC.
+     */
+    public static final String BEER_UPC_CACHE = "beersByUpc";
+
+    /**
+     * Switches the Caffeine cache manager to async mode so reactive methods can be cached,
+     * and registers the UPC cache with its own sizing.
+     * <p>
+     * UPC lookups come from point-of-sale scans, which are bursty and concentrated on few hot barcodes,
+     * so they get a dedicated cache instead of competing for space with the lookups by id.
+     *
+     * @param upcCacheSpec The Caffeine spec of the UPC cache.
+     * @return A customizer applied by Spring Boot to the auto-configured CaffeineCacheManager.
+     */
+    @Bean
+    CacheManagerCustomizer<CaffeineCacheManager> asyncCacheModeCustomizer(
+            @Value("${beer.upc-cache.spec:maximumSize=50000,expireAfterWrite=1m,recordStats}") String upcCacheSpec) {
+        return cacheManager -> {
+            cacheManager.setAsyncCacheMode(true);
+            cacheManager.registerCustomCache(BEER_UPC_CACHE, Caffeine.from(upcCacheSpec).buildAsync());
+        };
+    }
+}
@@ -12,6 +12,9 @@ import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
 /**
  * DatabaseConfig is a Spring configuration class that sets up database initialization
  * and auditing for a reactive Spring Boot application.
+ * <p>
+ * The ConnectionFactory itself is created by Spring Boot and, unless {@code spring.r2dbc.pool.enabled}
+ * is false, wrapped in an r2dbc-pool ConnectionPool sized by the {@code spring.r2dbc.pool.*} properties.
  */
 @Configuration
 @EnableR2dbcAuditing
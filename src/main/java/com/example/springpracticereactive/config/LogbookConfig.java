@@ -1,15 +1,27 @@
 package com.example.springpracticereactive.config;
 
+import com.example.springpracticereactive.logging.AsyncSink;
+import com.example.springpracticereactive.logging.SamplingStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.zalando.logbook.HttpLogFormatter;
 import org.zalando.logbook.Sink;
+import org.zalando.logbook.Strategy;
 import org.zalando.logbook.json.JsonHttpLogFormatter;
 import org.zalando.logbook.logstash.LogstashLogbackSink;
 
+import java.time.Duration;
+
 /**
  * LogbookConfig is a Spring configuration class that sets up logging
  * using Zalando Logbook with Logstash integration.
+ * <p>
+ * Two settings keep HTTP logging off the request path under load:
+ * {@code logbook.async.enabled} moves formatting to a bounded background queue, and
+ * {@code logbook.sampling.enabled} logs errors, slow exchanges and a sample of the rest.
  */
 @Configuration
 public class LogbookConfig {
@@ -18,14 +30,37 @@ public class LogbookConfig {
      * Creates a Sink bean for Logbook that uses Logstash for logging.
      * The Sink is configured with a JSON HTTP log formatter.
      *
-     * @return A configured LogstashLogbackSink instance.
+     * @param async         Whether entries are formatted and written on a background thread.
+     * @param queueCapacity The number of entries the background queue holds before dropping new ones.
+     * @param meterRegistry The registry the queue metrics are published to.
+     * @return A configured LogstashLogbackSink instance, wrapped in an AsyncSink if enabled.
      */
     @Bean
-    public Sink logbookLogStash() {
+    public Sink logbookLogStash(@Value("${logbook.async.enabled:false}") boolean async,
+                                @Value("${logbook.async.queue-capacity:10000}") int queueCapacity,
+                                MeterRegistry meterRegistry) {
         // Create a JSON HTTP log formatter for structured logging.
         HttpLogFormatter formatter = new JsonHttpLogFormatter();
 
-        // Return a Logstash sink configured with the JSON formatter.
-        return new LogstashLogbackSink(formatter);
+        // Create a Logstash sink configured with the JSON formatter.
+        var sink = new LogstashLogbackSink(formatter);
+
+        return async ? new AsyncSink(sink, queueCapacity, meterRegistry) : sink;
+    }
+
+    /**
+     * Creates the Strategy deciding which exchanges are logged, replacing Logbook's default of logging all of them.
+     *
+     * @param sampleRate    The fraction of the successful, fast exchanges to log.
+     * @param slowThreshold The duration from which an exchange is always logged.
+     * @param maxBodySize   The largest announced Content-Length whose body is captured.
+     * @return A SamplingStrategy.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "logbook.sampling.enabled", havingValue = "true")
+    public Strategy samplingStrategy(@Value("${logbook.sampling.rate:0.01}") double sampleRate,
+                                     @Value("${logbook.sampling.slow-threshold:500ms}") Duration slowThreshold,
+                                     @Value("${logbook.write.max-body-size:-1}") long maxBodySize) {
+        return new SamplingStrategy(sampleRate, slowThreshold, maxBodySize);
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,27 @@
 package com.example.springpracticereactive.config;
 
+import com.example.springpracticereactive.security.CachingReactiveJwtDecoder;
+import com.example.springpracticereactive.security.LocalJwkSet;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.autoconfigure.security.reactive.EndpointRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoders;
+import org.springframework.security.oauth2.jwt.SupplierReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebFluxSecurity
 public class SecurityConfig {
@@ -39,6 +52,56 @@ public class SecurityConfig {
                 .build();
     }
 
+    /**
+     * Creates the keys used to verify tokens from a local JWK set, when `security.jwt.jwk-set.location` is set.
+     * <p>
+     * The location may be a file (`file:/etc/keys/jwks.json`) or a classpath resource (`classpath:jwks.json`).
+     * It is re-read every `security.jwt.jwk-set.refresh-interval` in the background.
+     *
+     * @param location        the JWK set resource
+     * @param refreshInterval the time between two reads of the resource, zero to read it only at startup
+     * @param eventPublisher  the publisher notifying the token cache of key changes
+     * @return a `LocalJwkSet` with the keys loaded
+     */
+    @Bean
+    @ConditionalOnProperty("security.jwt.jwk-set.location")
+    LocalJwkSet localJwkSet(
+            @Value("${security.jwt.jwk-set.location}") Resource location,
+            @Value("${security.jwt.jwk-set.refresh-interval:5m}") Duration refreshInterval,
+            ApplicationEventPublisher eventPublisher) {
+        return new LocalJwkSet(location, refreshInterval, eventPublisher);
+    }
+
+    /**
+     * Creates the `ReactiveJwtDecoder` used by the resource server.
+     * <p>
+     * Keys come from the local JWK set if one is configured; otherwise they are discovered from the issuer
+     * on first use, as Spring Boot would do for the issuer-uri property.
+     * Verified tokens are cached, so a bearer token reused across requests is only verified once.
+     * Key rotations of the local JWK set clear the cache; keys discovered from the issuer are not watched, so there
+     * `security.jwt.cache.max-time-to-live` is how long a token signed with a removed key may still be accepted.
+     *
+     * @param issuerUri     the issuer of the accepted tokens
+     * @param maximumSize   the maximum number of cached tokens
+     * @param maxTimeToLive the maximum time a token stays cached before it is verified again
+     * @param localJwkSet   the local keys, if configured
+     * @param meterRegistry the registry the cache hit and miss counts are published to
+     * @return a `CachingReactiveJwtDecoder` in front of the decoder verifying the signatures
+     */
+    @Bean
+    CachingReactiveJwtDecoder jwtDecoder(
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+            @Value("${security.jwt.cache.maximum-size:10000}") long maximumSize,
+            @Value("${security.jwt.cache.max-time-to-live:5m}") Duration maxTimeToLive,
+            ObjectProvider<LocalJwkSet> localJwkSet,
+            MeterRegistry meterRegistry) {
+        var keys = localJwkSet.getIfAvailable();
+        ReactiveJwtDecoder delegate = keys != null
+                ? keys.decoder(issuerUri)
+                : new SupplierReactiveJwtDecoder(() -> ReactiveJwtDecoders.fromIssuerLocation(issuerUri));
+        return new CachingReactiveJwtDecoder(delegate, maximumSize, maxTimeToLive, meterRegistry);
+    }
+
     /**
      * Configures a `SecurityWebFilterChain` for securing all other endpoints.
      * <p>
@@ -57,7 +120,7 @@ public class SecurityConfig {
                 .authorizeExchange(
                         exchange -> exchange.anyExchange().authenticated()
                 )
-                // Configures OAuth2 resource server with JWT support
+                // Configures OAuth2 resource server with JWT support, verifying tokens with the jwtDecoder bean
                 .oauth2ResourceServer(
                         oAuth2ResourceServerSpec -> oAuth2ResourceServerSpec.jwt(Customizer.withDefaults())
                 )
@@ -1,9 +1,24 @@
 package com.example.springpracticereactive.controllers;
 
+import com.example.springpracticereactive.model.BatchItemResultDTO;
+import com.example.springpracticereactive.model.BeerChangeEventDTO;
 import com.example.springpracticereactive.model.BeerDTO;
+import com.example.springpracticereactive.model.BeerFilter;
+import com.example.springpracticereactive.model.BeerSearchResultDTO;
+import com.example.springpracticereactive.model.BeerStyleStatsDTO;
+import com.example.springpracticereactive.model.InventoryAdjustmentDTO;
+import com.example.springpracticereactive.model.InventoryDTO;
 import com.example.springpracticereactive.services.BeerService;
+import com.example.springpracticereactive.services.InsufficientStockException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -11,6 +26,8 @@ import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 /**
  * BeerController is a REST controller that handles HTTP requests for managing Beer entities.
  * It provides endpoints for CRUD operations using reactive programming with Project Reactor.
@@ -28,41 +45,215 @@ public class BeerController {
      */
     public static final String BEER_PATH_ID = BEER_PATH + "/{id}";
 
+    /**
+     * Path for bulk Beer creation.
+     */
+    public static final String BEER_PATH_BATCH = BEER_PATH + "/batch";
+
+    /**
+     * Path for Beer lookups by UPC.
+     */
+    public static final String BEER_PATH_UPC = BEER_PATH + "/upc/{upc}";
+
+    /**
+     * Path for stock adjustments of a Beer.
+     */
+    public static final String BEER_PATH_INVENTORY = BEER_PATH_ID + "/inventory";
+
+    /**
+     * Path for the per-style Beer statistics.
+     */
+    public static final String BEER_PATH_STATS = BEER_PATH + "/stats";
+
+    /**
+     * Path for the fuzzy Beer search.
+     */
+    public static final String BEER_PATH_SEARCH = BEER_PATH + "/search";
+
+    /**
+     * Path for the live feed of Beer changes.
+     */
+    public static final String BEER_PATH_CHANGES = BEER_PATH + "/changes";
+
+    /**
+     * Request header a reconnecting Server-Sent Events client sends with the id of the last event it received.
+     */
+    static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    /**
+     * Marks the end of the change events in the response stream; never sent to the client.
+     */
+    private static final ServerSentEvent<BeerChangeEventDTO> END_OF_CHANGES =
+            ServerSentEvent.<BeerChangeEventDTO>builder().build();
+
+    /**
+     * Number of search results returned when the client does not send a limit.
+     */
+    static final int SEARCH_DEFAULT_LIMIT = 10;
+
+    /**
+     * Upper bound for the number of search results requested by a client.
+     */
+    static final int SEARCH_MAX_LIMIT = 100;
+
     private final BeerService beerService;
+    private final boolean inventoryWriteBehind;
+    private final Duration changesHeartbeat;
 
     /**
      * Constructor for BeerController.
      *
-     * @param beerService Service layer for Beer-related operations.
+     * @param beerService          Service layer for Beer-related operations.
+     * @param inventoryWriteBehind Whether inventory adjustments are queued and written in the background.
+     * @param changesHeartbeat     The time between two keep-alive comments on the change feed.
      */
-    public BeerController(BeerService beerService) {
+    public BeerController(BeerService beerService,
+                          @Value("${beer.inventory.write-behind.enabled:false}") boolean inventoryWriteBehind,
+                          @Value("${beer.changes.heartbeat-interval:15s}") Duration changesHeartbeat) {
         this.beerService = beerService;
+        this.inventoryWriteBehind = inventoryWriteBehind;
+        this.changesHeartbeat = changesHeartbeat;
     }
 
     /**
-     * Handles GET requests to list all Beer entities.
+     * Handles GET requests to list Beer entities one page at a time.
+     * Paging is keyset based: the response carries a Link header with the cursor of the next page
+     * whenever more rows are available.
+     * <p>
+     * Clients accepting {@code application/x-ndjson} or {@code text/event-stream} instead receive every
+     * row after the cursor as a stream, each row flushed as soon as it is read from the database.
+     * <p>
+     * The optional {@code beerStyle}, {@code beerName} (prefix), {@code minPrice}, {@code maxPrice} and
+     * {@code minQuantityOnHand} query parameters narrow the result; the next-page link keeps them.
      *
-     * @return A Flux stream of BeerDTO objects.
+     * @param limit   The maximum number of beers to return, defaults to {@link CursorPage#DEFAULT_LIMIT}.
+     * @param after   The opaque cursor returned with the previous page, absent for the first page.
+     * @param filter  The filter criteria bound from the query parameters.
+     * @param request The current request, used to build the next-page link.
+     * @return A Mono containing a ResponseEntity with the page, or the stream, of BeerDTO objects.
      */
     @GetMapping(BEER_PATH)
-    Flux<BeerDTO> listBeers() {
-        return beerService.listBeers();
+    Mono<ResponseEntity<Flux<BeerDTO>>> listBeers(@RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) String after,
+                                                  @ModelAttribute BeerFilter filter,
+                                                  ServerHttpRequest request) {
+        if (StreamingResponses.isRequested(request)) {
+            return Mono.just(StreamingResponses.toResponse(
+                    beerService.listBeers(filter, CursorPage.after(after), Integer.MAX_VALUE)
+            ));
+        }
+
+        var pageSize = CursorPage.limit(limit);
+
+        // Fetch one extra row to find out whether a next page exists without a count query.
+        return beerService.listBeers(filter, CursorPage.after(after), pageSize + 1)
+                .collectList()
+                .map(beers -> CursorPage.toResponse(beers, pageSize, BeerDTO::id, request));
+    }
+
+    /**
+     * Handles GET requests for the count, total quantity on hand and min/avg/max price of every beer style.
+     * The statistics are maintained in memory, so this does not scan the beer table; until they are built
+     * at startup 503 is returned.
+     *
+     * @return A Flux of BeerStyleStatsDTO objects ordered by style.
+     */
+    @GetMapping(BEER_PATH_STATS)
+    Flux<BeerStyleStatsDTO> getBeerStats() {
+        return beerService.getBeerStats()
+                .onErrorMap(IllegalStateException.class,
+                        e -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e));
+    }
+
+    /**
+     * Handles GET requests searching beers by a partial or misspelled name or style.
+     * The search runs on an in-memory trigram index; results are ranked by similarity to the query.
+     * Until the index is built at startup 503 is returned.
+     *
+     * @param q     The search text, must not be blank.
+     * @param limit The maximum number of results, defaults to {@link #SEARCH_DEFAULT_LIMIT}.
+     * @return A Flux of BeerSearchResultDTO objects, most similar first.
+     */
+    @GetMapping(BEER_PATH_SEARCH)
+    Flux<BeerSearchResultDTO> searchBeers(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        if (q.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q must not be blank");
+        }
+        if (limit != null && limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        var resultLimit = limit == null ? SEARCH_DEFAULT_LIMIT : Math.min(limit, SEARCH_MAX_LIMIT);
+
+        return beerService.searchBeers(q, resultLimit)
+                .onErrorMap(IllegalStateException.class,
+                        e -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e));
+    }
+
+    /**
+     * Handles GET requests for the live feed of Beer changes, as Server-Sent Events.
+     * Every beer created, changed or deleted through the API is sent as an event whose id is its sequence number.
+     * A client reconnecting with the {@code Last-Event-ID} header, or the {@code lastEventId} query parameter,
+     * receives the events it missed, or a RESYNC event if they are no longer retained.
+     * <p>
+     * A keep-alive comment is sent right after subscribing and then every {@code beer.changes.heartbeat-interval},
+     * so proxies do not close an idle connection; the first one also tells the client the feed is live.
+     *
+     * @param lastEventIdHeader The id of the last event received, sent by reconnecting EventSource clients.
+     * @param lastEventIdParam  The id of the last event received, for clients that cannot set the header.
+     * @return A Flux of Server-Sent Events carrying BeerChangeEventDTO objects.
+     */
+    @GetMapping(value = BEER_PATH_CHANGES, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    Flux<ServerSentEvent<BeerChangeEventDTO>> beerChanges(
+            @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) Long lastEventIdParam) {
+        var lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+
+        var events = beerService.beerChanges(lastEventId)
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(String.valueOf(event.id()))
+                        .event(event.type().name())
+                        .build())
+                .concatWith(Mono.just(END_OF_CHANGES));
+        var heartbeats = Flux.interval(Duration.ZERO, changesHeartbeat)
+                .map(_ -> ServerSentEvent.<BeerChangeEventDTO>builder().comment("keep-alive").build());
+
+        // merge subscribes to the events first, so the first keep-alive is only sent once the feed is live.
+        // The marker ends the response, heartbeats included, when the feed disconnects a slow client.
+        return Flux.merge(events, heartbeats)
+                .takeWhile(event -> event != END_OF_CHANGES);
     }
 
     /**
      * Handles GET requests to retrieve a Beer entity by its ID.
      *
+     * The version of the entity is returned as the ETag header, to be sent back in If-Match on updates.
+     *
      * @param id The ID of the Beer entity to retrieve.
      * @return A Mono containing the BeerDTO object, or an error if not found.
      */
     @GetMapping(BEER_PATH_ID)
-    Mono<BeerDTO> getBeerById(@PathVariable Integer id) {
+    Mono<ResponseEntity<BeerDTO>> getBeerById(@PathVariable Integer id) {
         return beerService.getBeerById(id)
-                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                .map(beerDTO -> ResponseEntity.ok().eTag(ETags.of(beerDTO.version())).body(beerDTO));
+    }
+
+    /**
+     * Handles GET requests to retrieve a Beer entity by its UPC, as scanned at the point of sale.
+     *
+     * @param upc The UPC of the Beer entity to retrieve.
+     * @return A Mono containing the BeerDTO object with its ETag, or an error if not found.
+     */
+    @GetMapping(BEER_PATH_UPC)
+    Mono<ResponseEntity<BeerDTO>> getBeerByUpc(@PathVariable String upc) {
+        return beerService.getBeerByUpc(upc)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                .map(beerDTO -> ResponseEntity.ok().eTag(ETags.of(beerDTO.version())).body(beerDTO));
     }
 
     /**
      * Handles POST requests to create a new Beer entity.
+     * A UPC already used by another beer returns 409.
      *
      * @param beerDTO The BeerDTO object containing the details of the Beer to create.
      * @return A Mono containing a ResponseEntity with the location of the created Beer.
@@ -70,37 +261,92 @@ public class BeerController {
     @PostMapping(BEER_PATH)
     Mono<ResponseEntity<Void>> createNewBeer(@Validated @RequestBody BeerDTO beerDTO) {
         return beerService.saveNewBeer(beerDTO)
+                .onErrorMap(DuplicateKeyException.class, BeerController::upcConflict)
                 .map(savedDTO -> ResponseEntity.created(
                         UriComponentsBuilder.fromUriString("http://localhost:8080/" + BEER_PATH + "/" + savedDTO.id()).build().toUri()
                 ).build());
     }
 
+    /**
+     * Handles POST requests to create many Beer entities at once.
+     * The body may be a JSON array or an NDJSON stream of beers; it is read incrementally
+     * and written in chunks, with one result per item returned in request order.
+     *
+     * @param beerDTOs The BeerDTO objects containing the details of the Beers to create.
+     * @return A Flux of BatchItemResultDTO objects with the generated id or the errors of each item.
+     */
+    @PostMapping(BEER_PATH_BATCH)
+    Flux<BatchItemResultDTO> createNewBeers(@RequestBody Flux<BeerDTO> beerDTOs) {
+        return beerService.saveNewBeers(beerDTOs);
+    }
+
     /**
      * Handles PUT requests to update an existing Beer entity.
+     * The optional If-Match header makes the update conditional on the current ETag; a mismatch returns 412.
+     * A UPC already used by another beer returns 409.
      *
      * @param id      The ID of the Beer entity to update.
      * @param beerDTO The BeerDTO object containing the updated details.
-     * @return A Mono containing a ResponseEntity indicating the update status.
+     * @param ifMatch The If-Match header carrying the expected ETag, may be absent.
+     * @return A Mono containing a ResponseEntity indicating the update status, with the new ETag.
      */
     @PutMapping(BEER_PATH_ID)
-    Mono<ResponseEntity<Void>> updateBeer(@PathVariable Integer id, @Validated @RequestBody BeerDTO beerDTO) {
-        return beerService.updateBeer(id, beerDTO)
+    Mono<ResponseEntity<Void>> updateBeer(@PathVariable Integer id, @Validated @RequestBody BeerDTO beerDTO,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return beerService.updateBeer(id, beerDTO, ETags.expectedVersion(ifMatch))
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                .map(_ -> ResponseEntity.noContent().build());
+                .onErrorMap(OptimisticLockingFailureException.class, ETags::preconditionFailed)
+                .onErrorMap(DuplicateKeyException.class, BeerController::upcConflict)
+                .map(updated -> ResponseEntity.noContent().eTag(ETags.of(updated.version())).build());
     }
 
     /**
      * Handles PATCH requests to partially update an existing Beer entity.
+     * The optional If-Match header makes the patch conditional on the current ETag; a mismatch returns 412.
+     * A UPC already used by another beer returns 409.
      *
      * @param id      The ID of the Beer entity to patch.
      * @param beerDTO The BeerDTO object containing the partial updates.
-     * @return A Mono containing a ResponseEntity indicating the patch status.
+     * @param ifMatch The If-Match header carrying the expected ETag, may be absent.
+     * @return A Mono containing a ResponseEntity indicating the patch status, with the new ETag.
      */
     @PatchMapping(BEER_PATH_ID)
-    Mono<ResponseEntity<Void>> patchBeer(@PathVariable Integer id, @Validated @RequestBody BeerDTO beerDTO) {
-        return beerService.patchBeer(id, beerDTO)
+    Mono<ResponseEntity<Void>> patchBeer(@PathVariable Integer id, @Validated @RequestBody BeerDTO beerDTO,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return beerService.patchBeer(id, beerDTO, ETags.expectedVersion(ifMatch))
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                .map(_ -> ResponseEntity.ok().build());
+                .onErrorMap(OptimisticLockingFailureException.class, ETags::preconditionFailed)
+                .onErrorMap(DuplicateKeyException.class, BeerController::upcConflict)
+                .map(updated -> ResponseEntity.ok().eTag(ETags.of(updated.version())).build());
+    }
+
+    /**
+     * Handles POST requests to add a signed delta to the quantity on hand of a Beer entity.
+     * The change is applied atomically by the database, so concurrent adjustments do not need an If-Match.
+     * A delta that would make the stock negative returns 409 and leaves the stock unchanged.
+     * <p>
+     * With {@code beer.inventory.write-behind.enabled} the delta is only queued and 202 is returned without a body;
+     * when the queued deltas are written, restocks are added first and sales are then removed up to the units
+     * available, so sales beyond the stock are not applied and leave the beer without stock.
+     *
+     * @param id         The ID of the Beer entity to adjust.
+     * @param adjustment The change of the quantity on hand.
+     * @return A Mono containing a ResponseEntity with the new stock and the new ETag, or 202 if queued.
+     */
+    @PostMapping(BEER_PATH_INVENTORY)
+    Mono<ResponseEntity<InventoryDTO>> adjustInventory(@PathVariable Integer id,
+                                                       @Validated @RequestBody InventoryAdjustmentDTO adjustment) {
+        if (inventoryWriteBehind) {
+            return beerService.queueInventoryAdjustment(id, adjustment.delta())
+                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                    .thenReturn(ResponseEntity.accepted().build());
+        }
+
+        return beerService.adjustInventory(id, adjustment.delta())
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                .onErrorMap(InsufficientStockException.class,
+                        e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e))
+                .map(inventory -> ResponseEntity.ok().eTag(ETags.of(inventory.version())).body(inventory));
     }
 
     /**
@@ -116,4 +362,14 @@ public class BeerController {
                 .flatMap(beerDTO -> beerService.deleteBeerById(beerDTO.id()))
                 .thenReturn(ResponseEntity.noContent().build());
     }
+
+    /**
+     * Translates a violation of the unique UPC index into a 409 Conflict.
+     *
+     * @param e The exception raised by the database.
+     * @return The ResponseStatusException to return to the client.
+     */
+    private static ResponseStatusException upcConflict(DuplicateKeyException e) {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "A beer with this upc already exists", e);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.example.springpracticereactive.controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * CursorPage holds the keyset (cursor) pagination helpers shared by the listing endpoints.
+ * Cursors are opaque, URL-safe tokens wrapping the id of the last row of the previous page.
+ */
+final class CursorPage {
+
+    /**
+     * Page size used when the client does not send a limit.
+     */
+    static final int DEFAULT_LIMIT = 50;
+
+    /**
+     * Upper bound for the page size requested by a client.
+     */
+    static final int MAX_LIMIT = 500;
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    private CursorPage() {
+    }
+
+    /**
+     * Resolves the page size requested by the client.
+     *
+     * @param limit The requested page size, may be null.
+     * @return The page size to use, capped at {@link #MAX_LIMIT}.
+     */
+    static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * Decodes an opaque cursor into the id the next page starts after.
+     *
+     * @param cursor The cursor sent by the client, may be null for the first page.
+     * @return The id to page after, or 0 for the first page.
+     */
+    static int after(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException(decoded);
+            }
+            return Integer.parseInt(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Encodes the id of the last row of a page into an opaque cursor.
+     *
+     * @param id The id of the last row returned.
+     * @return The opaque cursor.
+     */
+    static String encode(Integer id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Builds the response for a page fetched with one extra row as look-ahead.
+     * When the extra row is present it is dropped and a Link header pointing at the next page is added.
+     *
+     * @param rows    The rows fetched, at most {@code limit + 1}.
+     * @param limit   The page size.
+     * @param idOf    Function extracting the id of a row.
+     * @param request The current request, used to build the next link with the same query parameters.
+     * @param <T>     The row type.
+     * @return A ResponseEntity containing the page and, if there is one, the next-page link.
+     */
+    static <T> ResponseEntity<Flux<T>> toResponse(List<T> rows, int limit, Function<T, Integer> idOf,
+                                                   ServerHttpRequest request) {
+        if (rows.size() <= limit) {
+            return ResponseEntity.ok(Flux.fromIterable(rows));
+        }
+
+        var page = rows.subList(0, limit);
+        var next = encode(idOf.apply(page.getLast()));
+        var nextUri = UriComponentsBuilder.fromUri(request.getURI())
+                .replaceQueryParam("limit", limit)
+                .replaceQueryParam("after", next)
+                .build()
+                .toUri();
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"")
+                .header("X-Next-Cursor", next)
+                .body(Flux.fromIterable(page));
+    }
+}
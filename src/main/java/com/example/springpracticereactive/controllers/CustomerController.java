@@ -1,9 +1,17 @@
 package com.example.springpracticereactive.controllers;
 
 import com.example.springpracticereactive.model.CustomerDTO;
+import com.example.springpracticereactive.model.CustomerNameDTO;
+import com.example.springpracticereactive.model.ImportProgressDTO;
 import com.example.springpracticereactive.services.CustomerService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -28,6 +36,31 @@ public class CustomerController {
      */
     public static final String CUSTOMER_PATH_ID = CUSTOMER_PATH + "/{id}";
 
+    /**
+     * Path for bulk Customer imports from CSV files.
+     */
+    public static final String CUSTOMER_PATH_IMPORT = CUSTOMER_PATH + "/import";
+
+    /**
+     * Path for the Customer name autocomplete.
+     */
+    public static final String CUSTOMER_PATH_AUTOCOMPLETE = CUSTOMER_PATH + "/autocomplete";
+
+    /**
+     * Number of suggestions returned when the client does not send a limit.
+     */
+    static final int AUTOCOMPLETE_DEFAULT_LIMIT = 10;
+
+    /**
+     * Upper bound for the number of suggestions requested by a client.
+     */
+    static final int AUTOCOMPLETE_MAX_LIMIT = 100;
+
+    /**
+     * Media type of CSV uploads sent as the raw request body.
+     */
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
     private final CustomerService customerService;
 
     /**
@@ -40,25 +73,74 @@ public class CustomerController {
     }
 
     /**
-     * Handles GET requests to list all Customer entities.
+     * Handles GET requests to list Customer entities one page at a time.
+     * Paging is keyset based: the response carries a Link header with the cursor of the next page
+     * whenever more rows are available.
+     * <p>
+     * Clients accepting {@code application/x-ndjson} or {@code text/event-stream} instead receive every
+     * row after the cursor as a stream, each row flushed as soon as it is read from the database.
      *
-     * @return A Flux stream of CustomerDTO objects.
+     * @param limit   The maximum number of customers to return, defaults to {@link CursorPage#DEFAULT_LIMIT}.
+     * @param after   The opaque cursor returned with the previous page, absent for the first page.
+     * @param request The current request, used to build the next-page link.
+     * @return A Mono containing a ResponseEntity with the page, or the stream, of CustomerDTO objects.
      */
     @GetMapping(CUSTOMER_PATH)
-    Flux<CustomerDTO> listCustomers() {
-        return customerService.listCustomers();
+    Mono<ResponseEntity<Flux<CustomerDTO>>> listCustomers(@RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) String after,
+                                                          ServerHttpRequest request) {
+        if (StreamingResponses.isRequested(request)) {
+            return Mono.just(StreamingResponses.toResponse(
+                    customerService.listCustomers(CursorPage.after(after), Integer.MAX_VALUE)
+            ));
+        }
+
+        var pageSize = CursorPage.limit(limit);
+
+        // Fetch one extra row to find out whether a next page exists without a count query.
+        return customerService.listCustomers(CursorPage.after(after), pageSize + 1)
+                .collectList()
+                .map(customers -> CursorPage.toResponse(customers, pageSize, CustomerDTO::id, request));
+    }
+
+    /**
+     * Handles GET requests suggesting customers whose name starts with a prefix, ignoring case.
+     * Meant to be called on every keystroke: the lookup runs on an in-memory sorted index of the names.
+     * Until the index is built at startup 503 is returned.
+     *
+     * @param prefix The start of the name, must not be blank.
+     * @param limit  The maximum number of suggestions, defaults to {@link #AUTOCOMPLETE_DEFAULT_LIMIT}.
+     * @return A Flux of CustomerNameDTO objects ordered by name.
+     */
+    @GetMapping(CUSTOMER_PATH_AUTOCOMPLETE)
+    Flux<CustomerNameDTO> autocompleteCustomers(@RequestParam String prefix,
+                                                @RequestParam(required = false) Integer limit) {
+        if (prefix.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "prefix must not be blank");
+        }
+        if (limit != null && limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        var resultLimit = limit == null ? AUTOCOMPLETE_DEFAULT_LIMIT : Math.min(limit, AUTOCOMPLETE_MAX_LIMIT);
+
+        return customerService.autocompleteCustomers(prefix, resultLimit)
+                .onErrorMap(IllegalStateException.class,
+                        e -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e));
     }
 
     /**
      * Handles GET requests to retrieve a Customer entity by its ID.
      *
+     * The version of the entity is returned as the ETag header, to be sent back in If-Match on updates.
+     *
      * @param id The ID of the Customer entity to retrieve.
      * @return A Mono containing the CustomerDTO object, or an error if not found.
      */
     @GetMapping(CUSTOMER_PATH_ID)
-    Mono<CustomerDTO> getCustomerById(@PathVariable Integer id) {
+    Mono<ResponseEntity<CustomerDTO>> getCustomerById(@PathVariable Integer id) {
         return customerService.getCustomerById(id)
-                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                .map(customerDTO -> ResponseEntity.ok().eTag(ETags.of(customerDTO.version())).body(customerDTO));
     }
 
     /**
@@ -75,32 +157,63 @@ public class CustomerController {
                 ).build());
     }
 
+    /**
+     * Handles POST requests importing Customer entities from a CSV request body.
+     * The body is parsed as it arrives and written in batches, so files of any size are imported in bounded memory.
+     *
+     * @param content The raw CSV content.
+     * @return A Flux of ImportProgressDTO objects, one per batch written and a final one with the totals.
+     */
+    @PostMapping(value = CUSTOMER_PATH_IMPORT, consumes = TEXT_CSV_VALUE)
+    Flux<ImportProgressDTO> importCustomers(@RequestBody Flux<DataBuffer> content) {
+        return customerService.importCustomers(CustomerCsvReader.read(content));
+    }
+
+    /**
+     * Handles multipart POST requests importing Customer entities from an uploaded CSV file.
+     *
+     * @param file The uploaded CSV file, sent in the {@code file} part.
+     * @return A Flux of ImportProgressDTO objects, one per batch written and a final one with the totals.
+     */
+    @PostMapping(value = CUSTOMER_PATH_IMPORT, consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    Flux<ImportProgressDTO> importCustomersFile(@RequestPart("file") Mono<FilePart> file) {
+        return file.flatMapMany(filePart -> customerService.importCustomers(CustomerCsvReader.read(filePart.content())));
+    }
+
     /**
      * Handles PUT requests to update an existing Customer entity.
+     * The optional If-Match header makes the update conditional on the current ETag; a mismatch returns 412.
      *
      * @param id          The ID of the Customer entity to update.
      * @param customerDTO The CustomerDTO object containing the updated details.
-     * @return A Mono containing a ResponseEntity indicating the update status.
+     * @param ifMatch     The If-Match header carrying the expected ETag, may be absent.
+     * @return A Mono containing a ResponseEntity indicating the update status, with the new ETag.
      */
     @PutMapping(CUSTOMER_PATH_ID)
-    Mono<ResponseEntity<Void>> updateCustomer(@PathVariable Integer id, @Validated @RequestBody CustomerDTO customerDTO) {
-        return customerService.updateCustomer(id, customerDTO)
+    Mono<ResponseEntity<Void>> updateCustomer(@PathVariable Integer id, @Validated @RequestBody CustomerDTO customerDTO,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return customerService.updateCustomer(id, customerDTO, ETags.expectedVersion(ifMatch))
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                .map(_ -> ResponseEntity.noContent().build());
+                .onErrorMap(OptimisticLockingFailureException.class, ETags::preconditionFailed)
+                .map(updated -> ResponseEntity.noContent().eTag(ETags.of(updated.version())).build());
     }
 
     /**
      * Handles PATCH requests to partially update an existing Customer entity.
+     * The optional If-Match header makes the patch conditional on the current ETag; a mismatch returns 412.
      *
      * @param id          The ID of the Customer entity to patch.
      * @param customerDTO The CustomerDTO object containing the partial updates.
-     * @return A Mono containing a ResponseEntity indicating the patch status.
+     * @param ifMatch     The If-Match header carrying the expected ETag, may be absent.
+     * @return A Mono containing a ResponseEntity indicating the patch status, with the new ETag.
      */
     @PatchMapping(CUSTOMER_PATH_ID)
-    Mono<ResponseEntity<Void>> patchCustomer(@PathVariable Integer id, @Validated @RequestBody CustomerDTO customerDTO) {
-        return customerService.patchCustomer(id, customerDTO)
+    Mono<ResponseEntity<Void>> patchCustomer(@PathVariable Integer id, @Validated @RequestBody CustomerDTO customerDTO,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return customerService.patchCustomer(id, customerDTO, ETags.expectedVersion(ifMatch))
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                .map(_ -> ResponseEntity.ok().build());
+                .onErrorMap(OptimisticLockingFailureException.class, ETags::preconditionFailed)
+                .map(updated -> ResponseEntity.ok().eTag(ETags.of(updated.version())).build());
     }
 
     /**
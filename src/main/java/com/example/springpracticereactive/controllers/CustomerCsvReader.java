@@ -0,0 +1,111 @@
+package com.example.springpracticereactive.controllers;
+
+import com.example.springpracticereactive.model.CustomerDTO;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * CustomerCsvReader turns an uploaded CSV body into a stream of CustomerDTO objects.
+ * The body is split into lines as the DataBuffers arrive, so only the current line is held in memory.
+ * <p>
+ * The first line may be a header naming the {@code customerName} column; without a header the first
+ * column is used. Quoted fields follow RFC 4180, except that a quoted field cannot span several lines.
+ */
+final class CustomerCsvReader {
+
+    /**
+     * Header names accepted for the customer name column.
+     */
+    private static final Set<String> NAME_HEADERS = Set.of("customername", "customer_name", "name");
+
+    private static final StringDecoder LINE_DECODER = StringDecoder.allMimeTypes();
+
+    private static final ResolvableType STRING_TYPE = ResolvableType.forClass(String.class);
+
+    private CustomerCsvReader() {
+    }
+
+    /**
+     * Parses the CSV content into CustomerDTO objects, one per non-blank data line.
+     *
+     * @param content The raw request or file part content.
+     * @return A Flux of CustomerDTO objects in file order.
+     */
+    static Flux<CustomerDTO> read(Flux<DataBuffer> content) {
+        return Flux.defer(() -> {
+            // Index of the name column, resolved from the first line of the file.
+            var nameColumn = new int[]{-1};
+
+            return LINE_DECODER.decode(content, STRING_TYPE, null, null)
+                    .filter(line -> !line.isBlank())
+                    .<CustomerDTO>handle((line, sink) -> {
+                        var fields = parseLine(line);
+                        if (nameColumn[0] < 0) {
+                            var headerColumn = headerColumn(fields);
+                            nameColumn[0] = Math.max(headerColumn, 0);
+                            if (headerColumn >= 0) {
+                                return;
+                            }
+                        }
+                        sink.next(new CustomerDTO(nameColumn[0] < fields.size() ? fields.get(nameColumn[0]) : null));
+                    });
+        });
+    }
+
+    /**
+     * Finds the name column in a header line.
+     *
+     * @param fields The fields of the first line.
+     * @return The index of the name column, or -1 if the line is not a header.
+     */
+    private static int headerColumn(List<String> fields) {
+        for (int i = 0; i < fields.size(); i++) {
+            if (NAME_HEADERS.contains(fields.get(i).trim().toLowerCase())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Splits one CSV line into its fields, honouring double-quoted fields and escaped quotes.
+     *
+     * @param line The line to split, without its line terminator.
+     * @return The fields of the line.
+     */
+    static List<String> parseLine(String line) {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+
+        return fields;
+    }
+}
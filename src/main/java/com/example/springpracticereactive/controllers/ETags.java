@@ -0,0 +1,63 @@
+package com.example.springpracticereactive.controllers;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * ETags holds the helpers mapping entity versions to HTTP entity tags.
+ * The ETag of an entity is its version column, so {@code If-Match} turns an update into a compare-and-set.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Formats an entity version as a strong entity tag.
+     *
+     * @param version The version of the entity.
+     * @return The quoted entity tag, e.g. {@code "3"}.
+     */
+    static String of(Integer version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Resolves the version an update is conditional on from an {@code If-Match} header.
+     * If-Match uses the strong comparison (RFC 9110, section 13.1.1), so a weak tag never matches.
+     *
+     * @param ifMatch The If-Match header value, may be null.
+     * @return The expected version, or null if the update is unconditional (no header or {@code *}).
+     * @throws ResponseStatusException with 412 if the header is a weak tag or cannot match any version.
+     */
+    static Integer expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        var tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match requires a strong entity tag");
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+
+        try {
+            return Integer.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not match any version");
+        }
+    }
+
+    /**
+     * Maps a failed compare-and-set to a 412 Precondition Failed response.
+     *
+     * @param e The exception raised by the service layer.
+     * @return A ResponseStatusException with status 412.
+     */
+    static ResponseStatusException preconditionFailed(OptimisticLockingFailureException e) {
+        return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage(), e);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.springpracticereactive.controllers;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * StreamingResponses holds the helpers used by the listing endpoints to serve
+ * {@code application/x-ndjson} and {@code text/event-stream} clients.
+ * For these media types WebFlux writes and flushes every element as it is emitted
+ * instead of collecting the whole listing into one JSON array.
+ */
+final class StreamingResponses {
+
+    /**
+     * Media types for which a listing is streamed row by row rather than paged.
+     */
+    static final List<MediaType> STREAMING_MEDIA_TYPES = List.of(
+            MediaType.APPLICATION_NDJSON,
+            MediaType.TEXT_EVENT_STREAM
+    );
+
+    /**
+     * Number of rows requested from the database cursor at a time while streaming.
+     * Demand from the HTTP connection is replenished in batches of this size, so a slow
+     * client throttles the R2DBC fetch instead of piling rows up in memory.
+     */
+    static final int STREAM_PREFETCH = 64;
+
+    private StreamingResponses() {
+    }
+
+    /**
+     * Checks whether the client explicitly asked for a streaming media type.
+     * Wildcards such as {@code *}{@code /*} do not count, so plain JSON stays the default.
+     *
+     * @param request The current request.
+     * @return true if the Accept header names NDJSON or Server-Sent Events.
+     */
+    static boolean isRequested(ServerHttpRequest request) {
+        return request.getHeaders().getAccept().stream()
+                .anyMatch(accepted -> STREAMING_MEDIA_TYPES.stream().anyMatch(accepted::equalsTypeAndSubtype));
+    }
+
+    /**
+     * Wraps a Flux of rows into a streaming response with bounded demand towards the source.
+     *
+     * @param rows The rows to stream.
+     * @param <T>  The row type.
+     * @return A ResponseEntity whose body is written element by element by the negotiated encoder.
+     */
+    static <T> ResponseEntity<Flux<T>> toResponse(Flux<T> rows) {
+        return ResponseEntity.ok(rows.limitRate(STREAM_PREFETCH));
+    }
+}
@@ -3,6 +3,7 @@ package com.example.springpracticereactive.domain;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -44,6 +45,13 @@ public record Beer(
          */
         BigDecimal price,
 
+        /**
+         * The version of the Beer entity, incremented on every update.
+         * Used for optimistic concurrency control and exposed to clients as the ETag.
+         */
+        @Version
+        Integer version,
+
         /**
          * The timestamp when the Beer entity was created.
          */
@@ -57,7 +65,7 @@ public record Beer(
         LocalDateTime lastModifiedDate
 ) {
     /**
-     * Constructor for creating a Beer entity without an ID or timestamps.
+     * Constructor for creating a Beer entity without an ID, version or timestamps.
      *
      * @param beerName       The name of the beer.
      * @param beerStyle      The style of the beer.
@@ -72,6 +80,6 @@ public record Beer(
             Integer quantityOnHand,
             BigDecimal price
     ) {
-        this(null, beerName, beerStyle, upc, quantityOnHand, price, null, null);
+        this(null, beerName, beerStyle, upc, quantityOnHand, price, null, null, null);
     }
 }
\ No newline at end of file
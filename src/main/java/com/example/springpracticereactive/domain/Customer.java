@@ -4,13 +4,14 @@ import jakarta.validation.constraints.Size;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 
 import java.time.LocalDateTime;
 
 /**
  * Represents a Customer entity in the system.
  * This class is implemented as a Java record, which is a compact and immutable data structure.
- * It includes fields for the customer's ID, name, creation date, and last modification date.
+ * It includes fields for the customer's ID, name, version, creation date, and last modification date.
  */
 public record Customer(
 
@@ -28,6 +29,13 @@ public record Customer(
         @Size(max = 255)
         String customerName,
 
+        /**
+         * The version of the customer record, incremented on every update.
+         * Annotated with @Version so Spring Data uses it for optimistic concurrency control.
+         */
+        @Version
+        Integer version,
+
         /**
          * The date and time when the customer record was created.
          * Automatically populated by Spring Data using the @CreatedDate annotation.
@@ -44,11 +52,11 @@ public record Customer(
 ) {
     /**
      * Constructor for creating a new Customer with only a name.
-     * The ID, creation date, and last modification date are set to null.
+     * The ID, version, creation date, and last modification date are set to null.
      *
      * @param customerName The name of the customer.
      */
     public Customer(String customerName) {
-        this(null, customerName, null, null);
+        this(null, customerName, null, null, null);
     }
 }
\ No newline at end of file
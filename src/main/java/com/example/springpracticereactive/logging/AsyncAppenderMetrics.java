@@ -0,0 +1,38 @@
+package com.example.springpracticereactive.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the queue depth and discarded events of every DiscardCountingAsyncAppender attached to the root logger,
+ * as the {@code logback.async.queue.size} gauge and the {@code logback.async.discarded} counter, tagged by appender name.
+ */
+@Component
+public class AsyncAppenderMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext)) {
+            return;
+        }
+        var appenders = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof DiscardCountingAsyncAppender appender) {
+                Gauge.builder("logback.async.queue.size", appender, DiscardCountingAsyncAppender::getNumberOfElementsInQueue)
+                        .tag("appender", appender.getName())
+                        .description("Log events waiting to be written")
+                        .register(registry);
+                FunctionCounter.builder("logback.async.discarded", appender, DiscardCountingAsyncAppender::getDiscardedCount)
+                        .tag("appender", appender.getName())
+                        .description("Log events of level INFO and below discarded because the queue was nearly full")
+                        .register(registry);
+            }
+        }
+    }
+}
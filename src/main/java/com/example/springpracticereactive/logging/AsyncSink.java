@@ -0,0 +1,128 @@
+package com.example.springpracticereactive.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Logbook Sink that hands the formatting and writing of log entries to a background thread.
+ * <p>
+ * Entries are put on a bounded queue by the thread completing the exchange, usually a Netty event loop,
+ * and taken off by a single daemon thread that passes them to the delegate sink. When the queue is full
+ * the entry is dropped and counted instead of making the exchange wait.
+ * <p>
+ * Publishes the {@code logbook.sink.queue.size} gauge and the {@code logbook.sink.dropped} counter.
+ */
+public class AsyncSink implements Sink, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncSink.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000;
+
+    private final Sink delegate;
+    private final BlockingQueue<Entry> queue;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * A log entry waiting to be written.
+     */
+    @FunctionalInterface
+    private interface Entry {
+        void writeTo(Sink sink) throws IOException;
+    }
+
+    /**
+     * Constructor for AsyncSink. Starts the background thread.
+     *
+     * @param delegate      The sink formatting and writing the entries.
+     * @param capacity      The maximum number of entries waiting to be written.
+     * @param meterRegistry The registry the queue metrics are published to.
+     */
+    public AsyncSink(Sink delegate, int capacity, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("logbook.sink.queue.size", queue, BlockingQueue::size)
+                .description("HTTP log entries waiting to be written")
+                .register(meterRegistry);
+        FunctionCounter.builder("logbook.sink.dropped", dropped, LongAdder::sum)
+                .description("HTTP log entries dropped because the queue was full")
+                .register(meterRegistry);
+
+        this.worker = Thread.ofPlatform()
+                .name("logbook-sink")
+                .daemon()
+                .start(this::drain);
+    }
+
+    @Override
+    public boolean isActive() {
+        return delegate.isActive();
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, HttpRequest request) {
+        enqueue(sink -> sink.write(precorrelation, request));
+    }
+
+    @Override
+    public void write(Correlation correlation, HttpRequest request, HttpResponse response) {
+        enqueue(sink -> sink.write(correlation, request, response));
+    }
+
+    @Override
+    public void writeBoth(Correlation correlation, HttpRequest request, HttpResponse response) {
+        enqueue(sink -> sink.writeBoth(correlation, request, response));
+    }
+
+    /**
+     * Stops the background thread after writing the entries still queued, waiting at most five seconds.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+        if (!queue.isEmpty()) {
+            log.warn("{} HTTP log entries were not written before shutdown", queue.size());
+        }
+    }
+
+    private void enqueue(Entry entry) {
+        if (!queue.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                var entry = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    entry.writeTo(delegate);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not write HTTP log entry", e);
+            }
+        }
+    }
+}
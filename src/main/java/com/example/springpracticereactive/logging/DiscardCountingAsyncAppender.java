@@ -0,0 +1,35 @@
+package com.example.springpracticereactive.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A logback AsyncAppender that counts the events it discards.
+ * <p>
+ * Events are queued in a bounded array and written by a single background thread, so threads that log,
+ * including Netty event loops, do not wait for the console. Once fewer than {@code discardingThreshold}
+ * slots are free, TRACE, DEBUG and INFO events are discarded; WARN and ERROR events are always kept.
+ * Used from {@code logback-spring.xml}; its metrics are published by {@link AsyncAppenderMetrics}.
+ */
+public class DiscardCountingAsyncAppender extends AsyncAppender {
+
+    private final LongAdder discarded = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent eventObject) {
+        if (getRemainingCapacity() < getDiscardingThreshold() && isDiscardable(eventObject)) {
+            discarded.increment();
+            return;
+        }
+        super.append(eventObject);
+    }
+
+    /**
+     * @return The number of events discarded since the appender was started.
+     */
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.springpracticereactive.logging;
+
+import org.springframework.http.MediaType;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.ForwardingHttpRequest;
+import org.zalando.logbook.HttpHeaders;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+import org.zalando.logbook.Strategy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A Logbook Strategy that logs only a sample of the successful exchanges.
+ * <p>
+ * The request and response of an exchange are written together once the response is complete, when
+ * <ul>
+ *     <li>the response status is 400 or above,</li>
+ *     <li>the exchange took at least the slow threshold, or</li>
+ *     <li>the exchange was picked by the sampling rate.</li>
+ * </ul>
+ * The sample is drawn when the request arrives, before any body is captured, and only sampled exchanges have
+ * their bodies buffered. Failed and slow exchanges outside the sample are logged without bodies.
+ * Bodies are not captured at all for streaming exchanges (NDJSON, server-sent events), bulk uploads
+ * (CSV, multipart) and messages announcing a Content-Length above the maximum body size.
+ */
+public class SamplingStrategy implements Strategy {
+
+    private static final List<MediaType> UNLOGGED_BODY_TYPES = List.of(
+            MediaType.APPLICATION_NDJSON,
+            MediaType.TEXT_EVENT_STREAM,
+            MediaType.MULTIPART_FORM_DATA,
+            MediaType.parseMediaType("text/csv")
+    );
+
+    private final double sampleRate;
+    private final Duration slowThreshold;
+    private final long maxBodySize;
+
+    /**
+     * Marks a request picked by the sampling rate. Logbook wraps the processed request before handing it to the
+     * later phases, so the marker is looked up through the delegates, see {@link #isSampled(HttpRequest)}.
+     *
+     * @param delegate The processed request.
+     */
+    private record SampledHttpRequest(HttpRequest delegate) implements ForwardingHttpRequest {
+    }
+
+    /**
+     * Constructor for SamplingStrategy.
+     *
+     * @param sampleRate    The fraction of the successful, fast exchanges to log, between 0 and 1.
+     * @param slowThreshold The duration from which an exchange is always logged.
+     * @param maxBodySize   The largest announced Content-Length whose body is captured, negative for no limit.
+     */
+    public SamplingStrategy(double sampleRate, Duration slowThreshold, long maxBodySize) {
+        this.sampleRate = sampleRate;
+        this.slowThreshold = slowThreshold;
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    public HttpRequest process(HttpRequest request) throws IOException {
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return request.withoutBody();
+        }
+        if (skipBody(request.getContentType(), request.getHeaders())) {
+            return new SampledHttpRequest(request.withoutBody());
+        }
+        return new SampledHttpRequest(request.withBody());
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, HttpRequest request, Sink sink) {
+        // Deferred until the response is known, see write(Correlation, ...).
+    }
+
+    @Override
+    public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+        if (!isSampled(request) || skipBody(response.getContentType(), response.getHeaders())) {
+            return response.withoutBody();
+        }
+        return response.withBody();
+    }
+
+    @Override
+    public void write(Correlation correlation, HttpRequest request, HttpResponse response, Sink sink)
+            throws IOException {
+        if (response.getStatus() >= 400
+                || correlation.getDuration().compareTo(slowThreshold) >= 0
+                || isSampled(request)) {
+            sink.writeBoth(correlation, request, response);
+        }
+    }
+
+    private static boolean isSampled(HttpRequest request) {
+        var current = request;
+        while (current instanceof ForwardingHttpRequest forwarding) {
+            if (forwarding instanceof SampledHttpRequest) {
+                return true;
+            }
+            current = forwarding.delegate();
+        }
+        return false;
+    }
+
+    private boolean skipBody(String contentType, HttpHeaders headers) {
+        if (contentType != null && isUnloggedType(contentType)) {
+            return true;
+        }
+        var contentLength = headers.getFirst(org.springframework.http.HttpHeaders.CONTENT_LENGTH);
+        if (maxBodySize < 0 || contentLength == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(contentLength) > maxBodySize;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isUnloggedType(String contentType) {
+        try {
+            var mediaType = MediaType.parseMediaType(contentType);
+            return UNLOGGED_BODY_TYPES.stream().anyMatch(mediaType::equalsTypeAndSubtype);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
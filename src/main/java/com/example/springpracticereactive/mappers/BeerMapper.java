@@ -3,6 +3,7 @@ package com.example.springpracticereactive.mappers;
 import com.example.springpracticereactive.domain.Beer;
 import com.example.springpracticereactive.model.BeerDTO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 /**
  * Mapper interface for converting between Beer and BeerDTO objects.
@@ -13,10 +14,13 @@ public interface BeerMapper {
 
     /**
      * Converts a BeerDTO object to a Beer entity.
+     * The version is never taken from the client: new entities start unversioned and updates
+     * are made conditional through the If-Match header instead.
      *
      * @param beerDTO The BeerDTO object to be converted.
      * @return The corresponding Beer entity.
      */
+    @Mapping(target = "version", ignore = true)
     Beer beerDTOToBeer(BeerDTO beerDTO);
 
     /**
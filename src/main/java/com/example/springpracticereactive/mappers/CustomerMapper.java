@@ -3,6 +3,7 @@ package com.example.springpracticereactive.mappers;
 import com.example.springpracticereactive.domain.Customer;
 import com.example.springpracticereactive.model.CustomerDTO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 /**
  * Mapper interface for converting between Customer and CustomerDTO objects.
@@ -13,10 +14,13 @@ public interface CustomerMapper {
 
     /**
      * Converts a CustomerDTO object to a Customer entity.
+     * The version is never taken from the client: new entities start unversioned and updates
+     * are made conditional through the If-Match header instead.
      *
      * @param customerDTO The CustomerDTO object to be converted.
      * @return The corresponding Customer entity.
      */
+    @Mapping(target = "version", ignore = true)
     Customer customerDTOToCustomer(CustomerDTO customerDTO);
 
     /**
@@ -0,0 +1,180 @@
+package com.example.springpracticereactive.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * CallMetrics times the reactive calls made by the service layer and by the service layer into the repositories.
+ * <p>
+ * Each call is recorded from subscription until it terminates, in the {@value #SERVICE_CALLS} or
+ * {@value #REPOSITORY_CALLS} timer, tagged with the operation (e.g. {@code BeerService.getBeerById})
+ * and the outcome:
+ * <ul>
+ *     <li>{@code found} - at least one element was emitted</li>
+ *     <li>{@code not-found} - the call completed empty</li>
+ *     <li>{@code success} - a call without result completed</li>
+ *     <li>{@code error} - the call failed</li>
+ *     <li>{@code cancelled} - the subscriber cancelled before any element was emitted</li>
+ * </ul>
+ * The time of a service call not spent in its repository calls is mostly mapping and validation.
+ * <p>
+ * Timers are registered on first use and kept by name, operation and outcome, so recording a call costs a
+ * map lookup instead of a registry lookup and a builder allocation.
+ */
+@Component
+public class CallMetrics {
+
+    /**
+     * Name of the timer recording service calls.
+     */
+    public static final String SERVICE_CALLS = "app.service.calls";
+
+    /**
+     * Name of the timer recording repository calls.
+     */
+    public static final String REPOSITORY_CALLS = "app.repository.calls";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Identifies a timer by the meter name and its tags.
+     */
+    private record TimerKey(String name, String operation, String outcome) {
+    }
+
+    /**
+     * Constructor for CallMetrics.
+     *
+     * @param meterRegistry The registry the timers are registered in.
+     */
+    public CallMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times a service call returning at most one element.
+     *
+     * @param operation The name of the operation, e.g. {@code BeerService.getBeerById}.
+     * @param call      The call to time.
+     * @param <T>       The element type.
+     * @return The call, timed on every subscription.
+     */
+    public <T> Mono<T> service(String operation, Mono<T> call) {
+        return timed(SERVICE_CALLS, operation, call);
+    }
+
+    /**
+     * Times a service call returning many elements.
+     *
+     * @param operation The name of the operation, e.g. {@code BeerService.listBeers}.
+     * @param call      The call to time.
+     * @param <T>       The element type.
+     * @return The call, timed on every subscription.
+     */
+    public <T> Flux<T> service(String operation, Flux<T> call) {
+        return timed(SERVICE_CALLS, operation, call);
+    }
+
+    /**
+     * Times a service call that only signals completion, recorded with the {@code success} outcome.
+     *
+     * @param operation The name of the operation, e.g. {@code BeerService.deleteBeerById}.
+     * @param call      The call to time.
+     * @return The call, timed on every subscription.
+     */
+    public Mono<Void> serviceCompletion(String operation, Mono<Void> call) {
+        return completion(SERVICE_CALLS, operation, call);
+    }
+
+    /**
+     * Times a repository call returning at most one element.
+     *
+     * @param operation The name of the operation, e.g. {@code BeerRepository.findById}.
+     * @param call      The call to time.
+     * @param <T>       The element type.
+     * @return The call, timed on every subscription.
+     */
+    public <T> Mono<T> repository(String operation, Mono<T> call) {
+        return timed(REPOSITORY_CALLS, operation, call);
+    }
+
+    /**
+     * Times a repository call returning many elements.
+     *
+     * @param operation The name of the operation, e.g. {@code BeerRepository.findPageAfter}.
+     * @param call      The call to time.
+     * @param <T>       The element type.
+     * @return The call, timed on every subscription.
+     */
+    public <T> Flux<T> repository(String operation, Flux<T> call) {
+        return timed(REPOSITORY_CALLS, operation, call);
+    }
+
+    /**
+     * Times a repository call that only signals completion, recorded with the {@code success} outcome.
+     *
+     * @param operation The name of the operation, e.g. {@code BeerRepository.deleteById}.
+     * @param call      The call to time.
+     * @return The call, timed on every subscription.
+     */
+    public Mono<Void> repositoryCompletion(String operation, Mono<Void> call) {
+        return completion(REPOSITORY_CALLS, operation, call);
+    }
+
+    private <T> Mono<T> timed(String name, String operation, Mono<T> call) {
+        return Mono.defer(() -> {
+            var sample = Timer.start(meterRegistry);
+            var found = new AtomicBoolean();
+            return call
+                    .doOnNext(_ -> found.set(true))
+                    .doFinally(signal -> sample.stop(timer(name, operation, outcome(signal, found.get()))));
+        });
+    }
+
+    private <T> Flux<T> timed(String name, String operation, Flux<T> call) {
+        return Flux.defer(() -> {
+            var sample = Timer.start(meterRegistry);
+            var found = new AtomicBoolean();
+            return call
+                    .doOnNext(_ -> found.set(true))
+                    .doFinally(signal -> sample.stop(timer(name, operation, outcome(signal, found.get()))));
+        });
+    }
+
+    private Mono<Void> completion(String name, String operation, Mono<Void> call) {
+        return Mono.defer(() -> {
+            var sample = Timer.start(meterRegistry);
+            return call.doFinally(signal -> sample.stop(timer(name, operation, switch (signal) {
+                case ON_ERROR -> "error";
+                case CANCEL -> "cancelled";
+                default -> "success";
+            })));
+        });
+    }
+
+    private static String outcome(SignalType signal, boolean found) {
+        if (signal == SignalType.ON_ERROR) {
+            return "error";
+        }
+        if (found) {
+            return "found";
+        }
+        return signal == SignalType.CANCEL ? "cancelled" : "not-found";
+    }
+
+    private Timer timer(String name, String operation, String outcome) {
+        return timers.computeIfAbsent(new TimerKey(name, operation, outcome), key -> Timer.builder(key.name())
+                .tag("operation", key.operation())
+                .tag("outcome", key.outcome())
+                .register(meterRegistry));
+    }
+}
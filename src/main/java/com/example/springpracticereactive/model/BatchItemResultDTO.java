@@ -0,0 +1,73 @@
+package com.example.springpracticereactive.model;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) describing the outcome of one item of a bulk create request.
+ * This class is implemented as a Java record, which is a compact and immutable data structure.
+ */
+public record BatchItemResultDTO(
+
+        /**
+         * The zero-based position of the item in the request body.
+         */
+        long index,
+
+        /**
+         * The generated identifier of the created entity, or null if it was not created.
+         */
+        Integer id,
+
+        /**
+         * The outcome of the item.
+         */
+        Status status,
+
+        /**
+         * The validation or database errors reported for the item, empty when it was created.
+         */
+        List<String> errors
+) {
+    /**
+     * Possible outcomes of a bulk create item.
+     */
+    public enum Status {
+        /**
+         * The item was valid and has been inserted.
+         */
+        CREATED,
+
+        /**
+         * The item failed validation and was skipped.
+         */
+        INVALID,
+
+        /**
+         * The item was valid but the database rejected the chunk it was written in.
+         */
+        FAILED
+    }
+
+    /**
+     * Creates a result for an item that has been inserted.
+     *
+     * @param index The position of the item in the request body.
+     * @param id    The generated identifier.
+     * @return A CREATED result.
+     */
+    public static BatchItemResultDTO created(long index, Integer id) {
+        return new BatchItemResultDTO(index, id, Status.CREATED, List.of());
+    }
+
+    /**
+     * Creates a result for an item that has not been inserted.
+     *
+     * @param index  The position of the item in the request body.
+     * @param status The reason the item was not inserted.
+     * @param errors The error messages for the item.
+     * @return An INVALID or FAILED result.
+     */
+    public static BatchItemResultDTO rejected(long index, Status status, List<String> errors) {
+        return new BatchItemResultDTO(index, null, status, errors);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.springpracticereactive.model;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object (DTO) for one event of the beer change feed.
+ * This class is implemented as a Java record, which is a compact and immutable data structure.
+ */
+public record BeerChangeEventDTO(
+
+        /**
+         * The sequence number of the event, increasing by one per change; sent as the Server-Sent Event id.
+         */
+        long id,
+
+        /**
+         * The kind of change.
+         */
+        Type type,
+
+        /**
+         * The unique identifier of the changed beer, null for {@link Type#RESYNC}.
+         */
+        Integer beerId,
+
+        /**
+         * The new state of the beer, null for {@link Type#DELETED} and {@link Type#RESYNC}.
+         */
+        BeerDTO beer,
+
+        /**
+         * The time the change was published.
+         */
+        Instant occurredAt
+) {
+
+    /**
+     * The kinds of events of the change feed.
+     */
+    public enum Type {
+
+        /**
+         * A beer was created.
+         */
+        CREATED,
+
+        /**
+         * A beer was changed.
+         */
+        UPDATED,
+
+        /**
+         * A beer was deleted.
+         */
+        DELETED,
+
+        /**
+         * The requested events are no longer retained, so the client has to reload the beers it holds.
+         */
+        RESYNC
+    }
+}
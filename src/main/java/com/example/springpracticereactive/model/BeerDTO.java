@@ -52,6 +52,11 @@ public record BeerDTO(
          */
         BigDecimal price,
 
+        /**
+         * The version of the beer record, also returned as the ETag header.
+         */
+        Integer version,
+
         /**
          * The date and time when the beer record was created.
          */
@@ -69,7 +74,7 @@ public record BeerDTO(
      * @param beerName The name of the beer.
      */
     public BeerDTO(String beerName) {
-        this(null, beerName, null, null, null, null, null, null);
+        this(null, beerName, null, null, null, null, null, null, null);
     }
 
     // Uncommented constructors for additional flexibility in creating BeerDTO objects.
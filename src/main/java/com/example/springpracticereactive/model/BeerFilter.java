@@ -0,0 +1,54 @@
+package com.example.springpracticereactive.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Filter criteria for listing beers, bound from the query parameters of {@code GET /api/v2/beer}.
+ * Every criterion is optional; null criteria do not restrict the result.
+ * This class is implemented as a Java record, which is a compact and immutable data structure.
+ */
+public record BeerFilter(
+
+        /**
+         * The exact style of the beer (e.g., IPA, Pale Ale).
+         */
+        String beerStyle,
+
+        /**
+         * A prefix the name of the beer must start with.
+         */
+        String beerName,
+
+        /**
+         * The lowest price to include.
+         */
+        BigDecimal minPrice,
+
+        /**
+         * The highest price to include.
+         */
+        BigDecimal maxPrice,
+
+        /**
+         * The lowest quantity on hand to include.
+         */
+        Integer minQuantityOnHand
+) {
+    /**
+     * A filter that does not restrict the result.
+     */
+    public static final BeerFilter NONE = new BeerFilter(null, null, null, null, null);
+
+    /**
+     * Checks whether this filter restricts the result at all.
+     *
+     * @return true if no criterion is set.
+     */
+    public boolean isEmpty() {
+        return (beerStyle == null || beerStyle.isBlank())
+                && (beerName == null || beerName.isBlank())
+                && minPrice == null
+                && maxPrice == null
+                && minQuantityOnHand == null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.springpracticereactive.model;
+
+/**
+ * Data Transfer Object (DTO) for one match of a beer search.
+ * This class is implemented as a Java record, which is a compact and immutable data structure.
+ */
+public record BeerSearchResultDTO(
+
+        /**
+         * The unique identifier of the beer.
+         */
+        Integer id,
+
+        /**
+         * The name of the beer.
+         */
+        String beerName,
+
+        /**
+         * The style of the beer.
+         */
+        String beerStyle,
+
+        /**
+         * The similarity of the name and style of the beer to the query, between 0 and 1.
+         */
+        double score
+) {
+}
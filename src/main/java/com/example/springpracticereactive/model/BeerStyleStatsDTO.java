@@ -0,0 +1,41 @@
+package com.example.springpracticereactive.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object (DTO) with the inventory and price statistics of one beer style.
+ * This class is implemented as a Java record, which is a compact and immutable data structure.
+ */
+public record BeerStyleStatsDTO(
+
+        /**
+         * The beer style, null for the beers without a style.
+         */
+        String beerStyle,
+
+        /**
+         * The number of beers of this style.
+         */
+        long count,
+
+        /**
+         * The sum of the quantity on hand of the beers of this style; a missing quantity counts as zero.
+         */
+        long totalQuantityOnHand,
+
+        /**
+         * The lowest price of the beers of this style, null if none has a price.
+         */
+        BigDecimal minPrice,
+
+        /**
+         * The average price of the beers of this style that have a price, rounded to cents.
+         */
+        BigDecimal avgPrice,
+
+        /**
+         * The highest price of the beers of this style, null if none has a price.
+         */
+        BigDecimal maxPrice
+) {
+}
@@ -23,6 +23,11 @@ public record CustomerDTO(
         @NotBlank
         String customerName,
 
+        /**
+         * The version of the customer record, also returned as the ETag header.
+         */
+        Integer version,
+
         /**
          * The date and time when the customer record was created.
          */
@@ -40,6 +45,6 @@ public record CustomerDTO(
      * @param customerName The name of the customer.
      */
     public CustomerDTO(String customerName) {
-        this(null, customerName, null, null);
+        this(null, customerName, null, null, null);
     }
 }
\ No newline at end of file
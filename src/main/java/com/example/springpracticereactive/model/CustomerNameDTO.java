@@ -0,0 +1,19 @@
+package com.example.springpracticereactive.model;
+
+/**
+ * Data Transfer Object (DTO) for one suggestion of the customer name autocomplete.
+ * This class is implemented as a Java record, which is a compact and immutable data structure.
+ */
+public record CustomerNameDTO(
+
+        /**
+         * The unique identifier of the customer.
+         */
+        Integer id,
+
+        /**
+         * The name of the customer, as stored.
+         */
+        String customerName
+) {
+}
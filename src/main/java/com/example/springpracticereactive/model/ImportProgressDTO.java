@@ -0,0 +1,30 @@
+package com.example.springpracticereactive.model;
+
+/**
+ * Data Transfer Object (DTO) reporting the progress of a streaming import.
+ * One instance is emitted after every batch written, and a last one with {@code complete} set once the input ends.
+ * This class is implemented as a Java record, which is a compact and immutable data structure.
+ */
+public record ImportProgressDTO(
+
+        /**
+         * The number of data rows read from the input so far.
+         */
+        long rowsRead,
+
+        /**
+         * The number of rows written to the database so far.
+         */
+        long rowsImported,
+
+        /**
+         * The number of rows skipped because they failed validation.
+         */
+        long rowsRejected,
+
+        /**
+         * Whether the whole input has been processed.
+         */
+        boolean complete
+) {
+}
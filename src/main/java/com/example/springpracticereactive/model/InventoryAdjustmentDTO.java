@@ -0,0 +1,17 @@
+package com.example.springpracticereactive.model;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Data Transfer Object (DTO) for a change of the stock of a beer.
+ * This class is implemented as a Java record, which is a compact and immutable data structure.
+ */
+public record InventoryAdjustmentDTO(
+
+        /**
+         * The number of units to add to the quantity on hand; negative to remove units, e.g. for a sale.
+         */
+        @NotNull
+        Integer delta
+) {
+}
@@ -0,0 +1,24 @@
+package com.example.springpracticereactive.model;
+
+/**
+ * Data Transfer Object (DTO) reporting the stock of a beer after an inventory adjustment.
+ * This class is implemented as a Java record, which is a compact and immutable data structure.
+ */
+public record InventoryDTO(
+
+        /**
+         * The unique identifier of the beer.
+         */
+        Integer beerId,
+
+        /**
+         * The quantity on hand after the adjustment.
+         */
+        Integer quantityOnHand,
+
+        /**
+         * The version of the beer after the adjustment.
+         */
+        Integer version
+) {
+}
@@ -1,14 +1,37 @@
 package com.example.springpracticereactive.repositories;
 
 import com.example.springpracticereactive.domain.Beer;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Repository interface for Beer entities.
- * Extends ReactiveCrudRepository to provide reactive CRUD operations.
+ * Extends ReactiveCrudRepository to provide reactive CRUD operations, and
+ * BeerRepositoryCustom for the operations implemented directly on the DatabaseClient.
  *
  * @see org.springframework.data.repository.reactive.ReactiveCrudRepository
  */
-public interface BeerRepository extends ReactiveCrudRepository<Beer, Integer> {
-    // No additional methods are defined, relying on the default CRUD operations provided by ReactiveCrudRepository.
+public interface BeerRepository extends ReactiveCrudRepository<Beer, Integer>, BeerRepositoryCustom {
+
+    /**
+     * Retrieves one page of Beer entities using keyset pagination on the primary key.
+     * The cost of a page stays constant however deep the client pages, since the
+     * primary key index is used to seek directly to the first row after the cursor.
+     *
+     * @param after The id of the last row of the previous page, or 0 for the first page.
+     * @param limit The maximum number of rows to return.
+     * @return A Flux of at most {@code limit} Beer entities ordered by id.
+     */
+    @Query("SELECT * FROM beer WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<Beer> findPageAfter(Integer after, int limit);
+
+    /**
+     * Retrieves a Beer entity by its UPC, served by the unique index on the upc column.
+     *
+     * @param upc The UPC of the beer.
+     * @return A Mono containing the Beer entity, or empty if no beer has this UPC.
+     */
+    Mono<Beer> findByUpc(String upc);
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.example.springpracticereactive.repositories;
+
+import com.example.springpracticereactive.domain.Beer;
+import com.example.springpracticereactive.model.BeerFilter;
+import com.example.springpracticereactive.model.BeerStyleStatsDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom repository fragment for Beer entities.
+ * Holds the operations that cannot be expressed as derived or {@code @Query} methods.
+ * <p>
+ * Updates increment the version column; when an expected version is given they only apply if the stored
+ * version still matches, which makes them a lock-free compare-and-set.
+ */
+public interface BeerRepositoryCustom {
+
+    /**
+     * The units added to and removed from the stock of a beer, kept apart so the removals can be capped at the stock.
+     *
+     * @param restocked The number of units added, not negative.
+     * @param sold      The number of units removed, not negative.
+     */
+    record QuantityDelta(int restocked, int sold) {
+    }
+
+    /**
+     * A beer as it was before and after an update, so callers can tell which of its values the update replaced.
+     *
+     * @param before The beer as it was before the update.
+     * @param after  The beer as the update wrote it.
+     */
+    record BeerUpdate(Beer before, Beer after) {
+    }
+
+    /**
+     * Retrieves one page of beers matching a filter, using keyset pagination on the primary key.
+     * Only the criteria that are set become part of the WHERE clause, so the database can use the
+     * index of the most selective one.
+     *
+     * @param filter The filter criteria.
+     * @param after  The id of the last row of the previous page, or 0 for the first page.
+     * @param limit  The maximum number of rows to return.
+     * @return A Flux of at most {@code limit} matching Beer entities ordered by id.
+     */
+    Flux<Beer> findPage(BeerFilter filter, Integer after, int limit);
+
+    /**
+     * Inserts the given beers with a single multi-row INSERT statement.
+     * Audit timestamps are set to the current time, as auditing would do for a regular save.
+     *
+     * @param beers The new Beer entities to insert, without ids.
+     * @return A Flux of the generated ids, in the same order as the given beers.
+     */
+    Flux<Integer> insertAll(List<Beer> beers);
+
+    /**
+     * Replaces the mutable fields of a beer with a single UPDATE statement.
+     * Every field is written, except a null quantity on hand, which keeps the stored value.
+     * The previous state comes back from the same statement, so the beer is not read before it is written.
+     *
+     * @param id              The id of the beer to update.
+     * @param beer            The new state of the beer; its id, version and timestamps are ignored.
+     * @param expectedVersion The version the beer must have for the update to apply, or null to update unconditionally.
+     * @return A Mono containing the beer before and after the update, or empty if no beer has the given id and version.
+     */
+    Mono<BeerUpdate> updateById(Integer id, Beer beer, Integer expectedVersion);
+
+    /**
+     * Partially updates a beer with a single UPDATE statement that only sets the non-null fields.
+     * The previous state comes back from the same statement, so the beer is not read before it is written.
+     *
+     * @param id              The id of the beer to patch.
+     * @param beer            The fields to change; null fields are left untouched.
+     * @param expectedVersion The version the beer must have for the update to apply, or null to update unconditionally.
+     * @return A Mono containing the beer before and after the update, or empty if no beer has the given id and version.
+     */
+    Mono<BeerUpdate> patchById(Integer id, Beer beer, Integer expectedVersion);
+
+    /**
+     * Deletes a beer and returns the row as it was, so callers know the values it had when it was removed.
+     *
+     * @param id The id of the beer to delete.
+     * @return A Mono containing the deleted Beer, or empty if no beer has the given id.
+     */
+    Mono<Beer> deleteByIdReturning(Integer id);
+
+    /**
+     * Adds a signed delta to the quantity on hand of a beer with a single conditional UPDATE statement.
+     * The database applies the change atomically, so concurrent adjustments never lose an update, and
+     * the row is only changed if the new quantity is not negative. The version is incremented as for any write.
+     *
+     * @param id    The id of the beer to adjust.
+     * @param delta The number of units to add, negative to remove units.
+     * @return A Mono containing the updated Beer, or empty if the beer does not exist or has too few units on hand.
+     */
+    Mono<Beer> adjustQuantityOnHand(Integer id, int delta);
+
+    /**
+     * Applies restocks and sales to the quantity on hand of many beers with a single UPDATE statement.
+     * Restocks are added first; sales are then removed up to the units available, i.e. the stock plus the restocks,
+     * so the quantity never goes negative and a beer whose sales exceed them ends up with none.
+     *
+     * @param deltas The units restocked and sold, by beer id.
+     * @return A Flux of the updated Beer entities; beers that no longer exist are missing.
+     */
+    Flux<Beer> applyQuantityDeltas(Map<Integer, QuantityDelta> deltas);
+
+    /**
+     * Computes the statistics of every beer style with a {@code GROUP BY} over the whole table.
+     * This is a full scan, meant to check the in-memory aggregates rather than to serve requests.
+     *
+     * @return A Flux of the statistics of every style that has at least one beer.
+     */
+    Flux<BeerStyleStatsDTO> aggregateByStyle();
+}
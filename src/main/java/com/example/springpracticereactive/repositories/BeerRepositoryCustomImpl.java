@@ -0,0 +1,295 @@
+package com.example.springpracticereactive.repositories;
+
+import com.example.springpracticereactive.domain.Beer;
+import com.example.springpracticereactive.model.BeerFilter;
+import com.example.springpracticereactive.model.BeerStyleStatsDTO;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Implementation of the BeerRepositoryCustom fragment using the R2DBC DatabaseClient.
+ * Spring Data picks it up by its {@code Impl} suffix and merges it into BeerRepository.
+ */
+public class BeerRepositoryCustomImpl implements BeerRepositoryCustom {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO beer (beer_name, beer_style, upc, quantity_on_hand, price, version, created_date, last_modified_date) VALUES ";
+
+    // A missing quantity counts as zero; the WHERE clause keeps the stock from going negative.
+    private static final String ADJUST_QUANTITY_SQL = "SELECT * FROM FINAL TABLE (UPDATE beer"
+            + " SET quantity_on_hand = COALESCE(quantity_on_hand, 0) + :delta,"
+            + " version = COALESCE(version, 0) + 1, last_modified_date = :last_modified_date"
+            + " WHERE id = :id AND COALESCE(quantity_on_hand, 0) + :delta >= 0)";
+
+    private static final int PRICE_SCALE = 2;
+
+    private static final String DELETE_RETURNING_SQL = "SELECT * FROM OLD TABLE (DELETE FROM beer WHERE id = :id)";
+
+    private static final String AGGREGATE_BY_STYLE_SQL = "SELECT beer_style, COUNT(*) AS beer_count,"
+            + " CAST(COALESCE(SUM(quantity_on_hand), 0) AS BIGINT) AS total_quantity_on_hand,"
+            + " MIN(price) AS min_price, AVG(price) AS avg_price, MAX(price) AS max_price"
+            + " FROM beer GROUP BY beer_style ORDER BY beer_style NULLS FIRST";
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+
+    /**
+     * Constructor for BeerRepositoryCustomImpl.
+     *
+     * @param databaseClient The reactive client used to run the SQL statements.
+     * @param converter      The converter used to map result rows to Beer entities.
+     */
+    public BeerRepositoryCustomImpl(DatabaseClient databaseClient, R2dbcConverter converter) {
+        this.databaseClient = databaseClient;
+        this.converter = converter;
+    }
+
+    @Override
+    public Flux<Beer> findPage(BeerFilter filter, Integer after, int limit) {
+        var sql = new StringBuilder("SELECT * FROM beer WHERE id > :after");
+        var columns = new ArrayList<SqlBindings.Column>();
+
+        if (filter.beerStyle() != null && !filter.beerStyle().isBlank()) {
+            sql.append(" AND beer_style = :beerStyle");
+            columns.add(new SqlBindings.Column("beerStyle", filter.beerStyle(), String.class));
+        }
+        if (filter.beerName() != null && !filter.beerName().isBlank()) {
+            // A constant-prefix LIKE is turned into a range scan on the beer_name index.
+            sql.append(" AND beer_name LIKE :beerName ESCAPE '\\'");
+            columns.add(new SqlBindings.Column("beerName", escapeLike(filter.beerName()) + "%", String.class));
+        }
+        if (filter.minPrice() != null) {
+            sql.append(" AND price >= :minPrice");
+            columns.add(new SqlBindings.Column("minPrice", filter.minPrice(), BigDecimal.class));
+        }
+        if (filter.maxPrice() != null) {
+            sql.append(" AND price <= :maxPrice");
+            columns.add(new SqlBindings.Column("maxPrice", filter.maxPrice(), BigDecimal.class));
+        }
+        if (filter.minQuantityOnHand() != null) {
+            sql.append(" AND quantity_on_hand >= :minQuantityOnHand");
+            columns.add(new SqlBindings.Column("minQuantityOnHand", filter.minQuantityOnHand(), Integer.class));
+        }
+        sql.append(" ORDER BY id LIMIT :limit");
+
+        var spec = databaseClient.sql(sql.toString())
+                .bind("after", after)
+                .bind("limit", limit);
+        for (var column : columns) {
+            spec = spec.bind(column.name(), column.value());
+        }
+
+        return spec.map((row, metadata) -> converter.read(Beer.class, row, metadata))
+                .all();
+    }
+
+    /**
+     * Escapes the LIKE wildcards of a user supplied prefix.
+     *
+     * @param prefix The prefix to escape.
+     * @return The prefix with backslash, percent and underscore escaped.
+     */
+    private static String escapeLike(String prefix) {
+        return prefix.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    @Override
+    public Flux<Integer> insertAll(List<Beer> beers) {
+        if (beers.isEmpty()) {
+            return Flux.empty();
+        }
+
+        // One row of named placeholders per beer, e.g. (:beerName0, :beerStyle0, ..., 0, :now, :now)
+        var sql = new StringBuilder(INSERT_PREFIX);
+        for (int i = 0; i < beers.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:beerName").append(i)
+                    .append(", :beerStyle").append(i)
+                    .append(", :upc").append(i)
+                    .append(", :quantityOnHand").append(i)
+                    .append(", :price").append(i)
+                    .append(", 0, :now, :now)");
+        }
+
+        var spec = databaseClient.sql(sql.toString())
+                .bind("now", LocalDateTime.now());
+        for (int i = 0; i < beers.size(); i++) {
+            var beer = beers.get(i);
+            spec = SqlBindings.bind(spec, "beerName" + i, beer.beerName(), String.class);
+            spec = SqlBindings.bind(spec, "beerStyle" + i, beer.beerStyle(), String.class);
+            spec = SqlBindings.bind(spec, "upc" + i, beer.upc(), String.class);
+            spec = SqlBindings.bind(spec, "quantityOnHand" + i, beer.quantityOnHand(), Integer.class);
+            spec = SqlBindings.bind(spec, "price" + i, beer.price(), BigDecimal.class);
+        }
+
+        return spec.filter(statement -> statement.returnGeneratedValues("id"))
+                .map((row, metadata) -> row.get("id", Integer.class))
+                .all();
+    }
+
+    @Override
+    public Mono<BeerUpdate> updateById(Integer id, Beer beer, Integer expectedVersion) {
+        var columns = new ArrayList<SqlBindings.Column>();
+        columns.add(new SqlBindings.Column("beer_name", beer.beerName(), String.class));
+        columns.add(new SqlBindings.Column("beer_style", beer.beerStyle(), String.class));
+        columns.add(new SqlBindings.Column("upc", beer.upc(), String.class));
+        if (beer.quantityOnHand() != null) {
+            columns.add(new SqlBindings.Column("quantity_on_hand", beer.quantityOnHand(), Integer.class));
+        }
+        columns.add(new SqlBindings.Column("price", beer.price(), BigDecimal.class));
+
+        return update(id, expectedVersion, columns);
+    }
+
+    @Override
+    public Mono<BeerUpdate> patchById(Integer id, Beer beer, Integer expectedVersion) {
+        var columns = new ArrayList<SqlBindings.Column>();
+        if (beer.beerName() != null) {
+            columns.add(new SqlBindings.Column("beer_name", beer.beerName(), String.class));
+        }
+        if (beer.beerStyle() != null) {
+            columns.add(new SqlBindings.Column("beer_style", beer.beerStyle(), String.class));
+        }
+        if (beer.upc() != null) {
+            columns.add(new SqlBindings.Column("upc", beer.upc(), String.class));
+        }
+        if (beer.quantityOnHand() != null) {
+            columns.add(new SqlBindings.Column("quantity_on_hand", beer.quantityOnHand(), Integer.class));
+        }
+        if (beer.price() != null) {
+            columns.add(new SqlBindings.Column("price", beer.price(), BigDecimal.class));
+        }
+
+        return update(id, expectedVersion, columns);
+    }
+
+    /**
+     * Runs an update that returns the previous row, and derives the row it wrote from it.
+     *
+     * @param id              The id of the beer to update.
+     * @param expectedVersion The version the beer must have, or null to update unconditionally.
+     * @param columns         The column assignments.
+     * @return A Mono containing the beer before and after the update, or empty if no beer has the given id and version.
+     */
+    private Mono<BeerUpdate> update(Integer id, Integer expectedVersion, List<SqlBindings.Column> columns) {
+        // The timestamp column keeps microseconds, so the derived row carries the value that was stored.
+        var lastModifiedDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return SqlBindings.updateReturningPrevious(databaseClient, converter, Beer.class, "beer", id, expectedVersion,
+                        columns, lastModifiedDate)
+                .map(before -> new BeerUpdate(before, applied(before, columns, lastModifiedDate)));
+    }
+
+    /**
+     * Applies the column assignments of an update to the previous state of a beer, as the UPDATE statement did.
+     *
+     * @param before           The beer as it was before the update.
+     * @param columns          The column assignments of the update.
+     * @param lastModifiedDate The modification timestamp the update wrote.
+     * @return The beer as the update wrote it.
+     */
+    private static Beer applied(Beer before, List<SqlBindings.Column> columns, LocalDateTime lastModifiedDate) {
+        var beerName = before.beerName();
+        var beerStyle = before.beerStyle();
+        var upc = before.upc();
+        var quantityOnHand = before.quantityOnHand();
+        var price = before.price();
+        for (var column : columns) {
+            switch (column.name()) {
+                case "beer_name" -> beerName = (String) column.value();
+                case "beer_style" -> beerStyle = (String) column.value();
+                case "upc" -> upc = (String) column.value();
+                case "quantity_on_hand" -> quantityOnHand = (Integer) column.value();
+                // The column is DECIMAL(19, 2); the database rounds half up to its scale.
+                case "price" -> price = column.value() != null
+                        ? ((BigDecimal) column.value()).setScale(PRICE_SCALE, RoundingMode.HALF_UP)
+                        : null;
+                default -> throw new IllegalArgumentException("Unknown beer column " + column.name());
+            }
+        }
+        return new Beer(before.id(), beerName, beerStyle, upc, quantityOnHand, price,
+                Objects.requireNonNullElse(before.version(), 0) + 1, before.createdDate(), lastModifiedDate);
+    }
+
+    @Override
+    public Mono<Beer> deleteByIdReturning(Integer id) {
+        return databaseClient.sql(DELETE_RETURNING_SQL)
+                .bind("id", id)
+                .map((row, metadata) -> converter.read(Beer.class, row, metadata))
+                .one();
+    }
+
+    @Override
+    public Mono<Beer> adjustQuantityOnHand(Integer id, int delta) {
+        return databaseClient.sql(ADJUST_QUANTITY_SQL)
+                .bind("delta", delta)
+                .bind("last_modified_date", LocalDateTime.now())
+                .bind("id", id)
+                .map((row, metadata) -> converter.read(Beer.class, row, metadata))
+                .one();
+    }
+
+    @Override
+    public Flux<Beer> applyQuantityDeltas(Map<Integer, QuantityDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return Flux.empty();
+        }
+
+        // CASE id WHEN :id0 THEN :restocked0 ... END picks the units of each row; the casts give the parameters a type.
+        var restocked = new StringBuilder("CASE id");
+        var sold = new StringBuilder("CASE id");
+        var ids = new StringBuilder();
+        for (int i = 0; i < deltas.size(); i++) {
+            restocked.append(" WHEN CAST(:id").append(i).append(" AS INT) THEN CAST(:restocked").append(i).append(" AS INT)");
+            sold.append(" WHEN CAST(:id").append(i).append(" AS INT) THEN CAST(:sold").append(i).append(" AS INT)");
+            ids.append(i == 0 ? "" : ", ").append(":id").append(i);
+        }
+        restocked.append(" END");
+        sold.append(" END");
+
+        // stock + restocked - LEAST(sold, stock + restocked): the restocks count as available to the sales.
+        var sql = "SELECT * FROM FINAL TABLE (UPDATE beer"
+                + " SET quantity_on_hand = GREATEST(COALESCE(quantity_on_hand, 0) + " + restocked + " - " + sold + ", 0),"
+                + " version = COALESCE(version, 0) + 1, last_modified_date = :last_modified_date"
+                + " WHERE id IN (" + ids + "))";
+
+        var spec = databaseClient.sql(sql)
+                .bind("last_modified_date", LocalDateTime.now());
+        int i = 0;
+        for (var entry : deltas.entrySet()) {
+            spec = spec.bind("id" + i, entry.getKey())
+                    .bind("restocked" + i, entry.getValue().restocked())
+                    .bind("sold" + i, entry.getValue().sold());
+            i++;
+        }
+
+        return spec.map((row, metadata) -> converter.read(Beer.class, row, metadata))
+                .all();
+    }
+
+    @Override
+    public Flux<BeerStyleStatsDTO> aggregateByStyle() {
+        return databaseClient.sql(AGGREGATE_BY_STYLE_SQL)
+                .map((row, metadata) -> new BeerStyleStatsDTO(
+                        row.get("beer_style", String.class),
+                        row.get("beer_count", Long.class),
+                        row.get("total_quantity_on_hand", Long.class),
+                        row.get("min_price", BigDecimal.class),
+                        row.get("avg_price", BigDecimal.class),
+                        row.get("max_price", BigDecimal.class)
+                ))
+                .all();
+    }
+}
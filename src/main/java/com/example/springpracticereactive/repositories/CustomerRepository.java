@@ -1,14 +1,28 @@
 package com.example.springpracticereactive.repositories;
 
 import com.example.springpracticereactive.domain.Customer;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 
 /**
  * Repository interface for Customer entities.
- * Extends ReactiveCrudRepository to provide reactive CRUD operations.
+ * Extends ReactiveCrudRepository to provide reactive CRUD operations, and
+ * CustomerRepositoryCustom for the operations implemented directly on the DatabaseClient.
  *
  * @see org.springframework.data.repository.reactive.ReactiveCrudRepository
  */
-public interface CustomerRepository extends ReactiveCrudRepository<Customer, Integer> {
-    // No additional methods are defined, relying on the default CRUD operations provided by ReactiveCrudRepository.
+public interface CustomerRepository extends ReactiveCrudRepository<Customer, Integer>, CustomerRepositoryCustom {
+
+    /**
+     * Retrieves one page of Customer entities using keyset pagination on the primary key.
+     * The cost of a page stays constant however deep the client pages, since the
+     * primary key index is used to seek directly to the first row after the cursor.
+     *
+     * @param after The id of the last row of the previous page, or 0 for the first page.
+     * @param limit The maximum number of rows to return.
+     * @return A Flux of at most {@code limit} Customer entities ordered by id.
+     */
+    @Query("SELECT * FROM customer WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<Customer> findPageAfter(Integer after, int limit);
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.example.springpracticereactive.repositories;
+
+import com.example.springpracticereactive.domain.Customer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for Customer entities.
+ * Holds the operations that cannot be expressed as derived or {@code @Query} methods.
+ * <p>
+ * Updates increment the version column; when an expected version is given they only apply if the stored
+ * version still matches, which makes them a lock-free compare-and-set.
+ */
+public interface CustomerRepositoryCustom {
+
+    /**
+     * Inserts the given customers with a single multi-row INSERT statement.
+     * Audit timestamps are set to the current time, as auditing would do for a regular save.
+     *
+     * @param customers The new Customer entities to insert, without ids.
+     * @return A Flux of the generated ids, in the same order as the given customers.
+     */
+    Flux<Integer> insertAll(List<Customer> customers);
+
+    /**
+     * Replaces the mutable fields of a customer with a single UPDATE statement.
+     *
+     * @param id              The id of the customer to update.
+     * @param customer        The new state of the customer; its id, version and timestamps are ignored.
+     * @param expectedVersion The version the customer must have for the update to apply, or null to update unconditionally.
+     * @return A Mono containing the updated Customer, or empty if no customer has the given id and version.
+     */
+    Mono<Customer> updateById(Integer id, Customer customer, Integer expectedVersion);
+
+    /**
+     * Partially updates a customer with a single UPDATE statement that only sets the non-null fields.
+     *
+     * @param id              The id of the customer to patch.
+     * @param customer        The fields to change; null fields are left untouched.
+     * @param expectedVersion The version the customer must have for the update to apply, or null to update unconditionally.
+     * @return A Mono containing the updated Customer, or empty if no customer has the given id and version.
+     */
+    Mono<Customer> patchById(Integer id, Customer customer, Integer expectedVersion);
+}
@@ -0,0 +1,76 @@
+package com.example.springpracticereactive.repositories;
+
+import com.example.springpracticereactive.domain.Customer;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of the CustomerRepositoryCustom fragment using the R2DBC DatabaseClient.
+ * Spring Data picks it up by its {@code Impl} suffix and merges it into CustomerRepository.
+ */
+public class CustomerRepositoryCustomImpl implements CustomerRepositoryCustom {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO customer (customer_name, version, created_date, last_modified_date) VALUES ";
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+
+    /**
+     * Constructor for CustomerRepositoryCustomImpl.
+     *
+     * @param databaseClient The reactive client used to run the SQL statements.
+     * @param converter      The converter used to map result rows to Customer entities.
+     */
+    public CustomerRepositoryCustomImpl(DatabaseClient databaseClient, R2dbcConverter converter) {
+        this.databaseClient = databaseClient;
+        this.converter = converter;
+    }
+
+    @Override
+    public Flux<Integer> insertAll(List<Customer> customers) {
+        if (customers.isEmpty()) {
+            return Flux.empty();
+        }
+
+        // One row of named placeholders per customer, e.g. (:customerName0, 0, :now, :now)
+        var sql = new StringBuilder(INSERT_PREFIX);
+        for (int i = 0; i < customers.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:customerName").append(i)
+                    .append(", 0, :now, :now)");
+        }
+
+        var spec = databaseClient.sql(sql.toString())
+                .bind("now", LocalDateTime.now());
+        for (int i = 0; i < customers.size(); i++) {
+            spec = SqlBindings.bind(spec, "customerName" + i, customers.get(i).customerName(), String.class);
+        }
+
+        return spec.filter(statement -> statement.returnGeneratedValues("id"))
+                .map((row, metadata) -> row.get("id", Integer.class))
+                .all();
+    }
+
+    @Override
+    public Mono<Customer> updateById(Integer id, Customer customer, Integer expectedVersion) {
+        return SqlBindings.updateReturning(databaseClient, converter, Customer.class, "customer", id, expectedVersion,
+                List.of(new SqlBindings.Column("customer_name", customer.customerName(), String.class)));
+    }
+
+    @Override
+    public Mono<Customer> patchById(Integer id, Customer customer, Integer expectedVersion) {
+        var columns = new ArrayList<SqlBindings.Column>();
+        if (customer.customerName() != null) {
+            columns.add(new SqlBindings.Column("customer_name", customer.customerName(), String.class));
+        }
+
+        return SqlBindings.updateReturning(databaseClient, converter, Customer.class, "customer", id, expectedVersion, columns);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.example.springpracticereactive.repositories;
+
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Helpers for building and binding the DatabaseClient statements of the custom repository fragments.
+ */
+final class SqlBindings {
+
+    private SqlBindings() {
+    }
+
+    /**
+     * A column assignment of an UPDATE statement.
+     *
+     * @param name  The column name, also used as the name of its bind parameter.
+     * @param value The new value, may be null.
+     * @param type  The type of the value, needed to bind nulls.
+     */
+    record Column(String name, Object value, Class<?> type) {
+    }
+
+    /**
+     * Binds a value that may be null to a named parameter.
+     * R2DBC drivers need the type of a null parameter, so nulls go through {@code bindNull}.
+     *
+     * @param spec  The statement to bind the value to.
+     * @param name  The name of the parameter.
+     * @param value The value to bind, may be null.
+     * @param type  The type of the value.
+     * @return The statement with the value bound.
+     */
+    static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                  Object value, Class<?> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
+    /**
+     * Updates one row by id with a single statement and reads back the updated row.
+     * The UPDATE is wrapped in an H2 {@code FINAL TABLE} query, so the new state of the row comes back from the
+     * same round trip; no row means no row matched, i.e. the id does not exist.
+     * {@code last_modified_date} is always set to the current time, as auditing would do for a regular save,
+     * and {@code version} is incremented. With an expected version the row is only updated if its version
+     * still matches, so a concurrent writer makes the statement match no row instead of being overwritten.
+     *
+     * @param databaseClient  The client used to run the statement.
+     * @param converter       The converter used to map the updated row to the entity.
+     * @param entityType      The entity class.
+     * @param table           The table to update.
+     * @param id              The id of the row to update.
+     * @param expectedVersion The version the row must have, or null to update unconditionally.
+     * @param columns         The column assignments, in SET order.
+     * @param <T>             The entity type.
+     * @return A Mono containing the updated entity, or empty if no row has the given id and version.
+     */
+    static <T> Mono<T> updateReturning(DatabaseClient databaseClient, R2dbcConverter converter, Class<T> entityType,
+                                       String table, Integer id, Integer expectedVersion, List<Column> columns) {
+        return update(databaseClient, "FINAL", table, id, expectedVersion, columns, LocalDateTime.now())
+                .map((row, metadata) -> converter.read(entityType, row, metadata))
+                .one();
+    }
+
+    /**
+     * Updates one row by id like {@link #updateReturning}, but reads back the row as it was before the update.
+     * The UPDATE is wrapped in an H2 {@code OLD TABLE} query, so the previous state comes from the same statement
+     * that writes the new one, without reading the row first. H2 allows one delta table per statement, so callers
+     * that also need the new state derive it from the previous one and the column assignments.
+     *
+     * @param databaseClient   The client used to run the statement.
+     * @param converter        The converter used to map the previous row to the entity.
+     * @param entityType       The entity class.
+     * @param table            The table to update.
+     * @param id               The id of the row to update.
+     * @param expectedVersion  The version the row must have, or null to update unconditionally.
+     * @param columns          The column assignments, in SET order.
+     * @param lastModifiedDate The value written to {@code last_modified_date}.
+     * @param <T>              The entity type.
+     * @return A Mono containing the entity as it was before the update, or empty if no row has the given id and version.
+     */
+    static <T> Mono<T> updateReturningPrevious(DatabaseClient databaseClient, R2dbcConverter converter,
+                                               Class<T> entityType, String table, Integer id, Integer expectedVersion,
+                                               List<Column> columns, LocalDateTime lastModifiedDate) {
+        return update(databaseClient, "OLD", table, id, expectedVersion, columns, lastModifiedDate)
+                .map((row, metadata) -> converter.read(entityType, row, metadata))
+                .one();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec update(DatabaseClient databaseClient, String deltaTable,
+                                                            String table, Integer id, Integer expectedVersion,
+                                                            List<Column> columns, LocalDateTime lastModifiedDate) {
+        var sql = new StringBuilder("SELECT * FROM ").append(deltaTable).append(" TABLE (UPDATE ")
+                .append(table).append(" SET ");
+        for (var column : columns) {
+            sql.append(column.name()).append(" = :").append(column.name()).append(", ");
+        }
+        sql.append("version = COALESCE(version, 0) + 1, last_modified_date = :last_modified_date WHERE id = :id");
+        if (expectedVersion != null) {
+            sql.append(" AND version = :expected_version");
+        }
+        sql.append(")");
+
+        var spec = databaseClient.sql(sql.toString())
+                .bind("last_modified_date", lastModifiedDate)
+                .bind("id", id);
+        if (expectedVersion != null) {
+            spec = spec.bind("expected_version", expectedVersion);
+        }
+        for (var column : columns) {
+            spec = spec.bind(column.name(), Parameter.fromOrEmpty(column.value(), column.type()));
+        }
+        return spec;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.springpracticereactive.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A ReactiveJwtDecoder that remembers the tokens its delegate has verified.
+ * <p>
+ * Clients reuse one bearer token for many requests, so the signature check and claim validation
+ * of the delegate only run on the first request; later requests are answered from a bounded cache.
+ * Entries are keyed by the SHA-256 hash of the token, so the cache never holds the credential itself,
+ * and expire at the token's {@code exp} or after the configured maximum time to live, whichever is first.
+ * The maximum time to live also bounds how long a token stays accepted after its key was rotated away
+ * without {@link #invalidateAll()} being called.
+ * <p>
+ * Registered as a bean, it is also cleared on every {@link JwkSetChangedEvent}. Only the local JWK set publishes
+ * that event: with keys discovered from the issuer, rotations are not observed and the maximum time to live alone
+ * bounds how long a token signed with a removed key stays accepted.
+ * A verification that was already running when the cache was cleared does not store its result, since it may
+ * have used the previous keys.
+ * Tokens the delegate rejects are not cached. Hit, miss and eviction counts are published as the
+ * {@code cache.*} metrics with the tag {@code cache=jwt}.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder, ApplicationListener<JwkSetChangedEvent> {
+
+    /**
+     * Name of the cache in the published metrics.
+     */
+    public static final String CACHE_NAME = "jwt";
+
+    private final ReactiveJwtDecoder delegate;
+    private final Cache<String, Jwt> cache;
+    private final Clock clock;
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Constructor for CachingReactiveJwtDecoder.
+     *
+     * @param delegate      The decoder verifying tokens that are not cached.
+     * @param maximumSize   The maximum number of cached tokens.
+     * @param maxTimeToLive The maximum time a token stays cached, even if it expires later.
+     * @param meterRegistry The registry the cache metrics are published to.
+     */
+    public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, long maximumSize, Duration maxTimeToLive,
+                                     MeterRegistry meterRegistry) {
+        this(delegate, maximumSize, maxTimeToLive, meterRegistry, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor for CachingReactiveJwtDecoder with an explicit clock, used to compute the remaining lifetime of tokens.
+     *
+     * @param delegate      The decoder verifying tokens that are not cached.
+     * @param maximumSize   The maximum number of cached tokens.
+     * @param maxTimeToLive The maximum time a token stays cached, even if it expires later.
+     * @param meterRegistry The registry the cache metrics are published to.
+     * @param clock         The clock compared against the {@code exp} claim.
+     */
+    CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, long maximumSize, Duration maxTimeToLive,
+                              MeterRegistry meterRegistry, Clock clock) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(maxTimeToLive, clock))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        var key = hash(token);
+        var cached = cache.getIfPresent(key);
+        // Caffeine expires lazily, so check exp again rather than trust an entry not yet cleaned up.
+        if (cached != null && !isExpired(cached)) {
+            return Mono.just(cached);
+        }
+        var verifiedIn = generation.get();
+        return delegate.decode(token)
+                // invalidateAll() moves to the next generation before clearing, so a verification that started
+                // before it either stores its result before the clear or sees the new generation and skips it.
+                .doOnNext(jwt -> cache.asMap().compute(key, (_, current) ->
+                        generation.get() == verifiedIn ? jwt : current));
+    }
+
+    /**
+     * Drops every cached token, so all of them are verified again by the delegate.
+     * Called when the signing keys change; verifications still running keep their result out of the cache.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Drops every cached token when the signing keys change.
+     *
+     * @param event The event published by the component that detected the change.
+     */
+    @Override
+    public void onApplicationEvent(JwkSetChangedEvent event) {
+        invalidateAll();
+    }
+
+    private boolean isExpired(Jwt jwt) {
+        return jwt.getExpiresAt() != null && !jwt.getExpiresAt().isAfter(clock.instant());
+    }
+
+    private static String hash(String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Expires each token at its {@code exp} claim, capped at the maximum time to live.
+     */
+    private record TokenExpiry(Duration maxTimeToLive, Clock clock) implements Expiry<String, Jwt> {
+
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            var ttl = maxTimeToLive;
+            if (jwt.getExpiresAt() != null) {
+                var remaining = Duration.between(clock.instant(), jwt.getExpiresAt());
+                if (remaining.compareTo(ttl) < 0) {
+                    ttl = remaining.isNegative() ? Duration.ZERO : remaining;
+                }
+            }
+            return ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.springpracticereactive.security;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when the keys used to verify JWT signatures change, e.g. after a key rotation.
+ * Tokens verified with the previous keys must then be verified again.
+ */
+public class JwkSetChangedEvent extends ApplicationEvent {
+
+    /**
+     * Constructor for JwkSetChangedEvent.
+     *
+     * @param source The component that detected the change.
+     */
+    public JwkSetChangedEvent(Object source) {
+        super(source);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.springpracticereactive.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * LocalJwkSet holds the keys used to verify JWT signatures, read from a local file or classpath resource
+ * instead of being discovered from the issuer.
+ * <p>
+ * The keys are read once when the bean is initialized, failing startup if they cannot be, and then
+ * re-read on a background schedule. Reads run on the bounded elastic scheduler and the new set is swapped
+ * in atomically, so verifying a token only ever looks up keys in memory. A refresh that fails keeps
+ * the current keys; a refresh that changes them publishes a {@link JwkSetChangedEvent}.
+ */
+public class LocalJwkSet implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalJwkSet.class);
+
+    private final Resource location;
+    private final Duration refreshInterval;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicReference<JWKSet> jwkSet = new AtomicReference<>();
+    private Disposable refreshTask;
+
+    /**
+     * Constructor for LocalJwkSet.
+     *
+     * @param location        The file or classpath resource containing the JWK set, in the JSON format of RFC 7517.
+     * @param refreshInterval The time between two reads of the resource, or zero to read it only once.
+     * @param eventPublisher  The publisher of the JwkSetChangedEvent.
+     */
+    public LocalJwkSet(Resource location, Duration refreshInterval, ApplicationEventPublisher eventPublisher) {
+        this.location = location;
+        this.refreshInterval = refreshInterval;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Reads the keys and schedules the refresh.
+     *
+     * @throws IOException    if the resource cannot be read.
+     * @throws ParseException if the resource is not a valid JWK set.
+     */
+    @Override
+    public void afterPropertiesSet() throws IOException, ParseException {
+        jwkSet.set(read());
+        log.info("Loaded {} signing keys from {}", jwkSet.get().size(), location);
+
+        if (!refreshInterval.isZero()) {
+            refreshTask = Flux.interval(refreshInterval, refreshInterval)
+                    .concatMap(_ -> refresh())
+                    .subscribe();
+        }
+    }
+
+    /**
+     * Stops the refresh.
+     */
+    @Override
+    public void destroy() {
+        if (refreshTask != null) {
+            refreshTask.dispose();
+        }
+    }
+
+    /**
+     * Re-reads the keys and swaps them in if they changed.
+     *
+     * @return A Mono emitting whether the keys changed; a failed read emits false and keeps the current keys.
+     */
+    Mono<Boolean> refresh() {
+        return Mono.fromCallable(this::read)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(this::swap)
+                .onErrorResume(e -> {
+                    log.warn("Could not refresh the signing keys from {}, keeping the current ones", location, e);
+                    return Mono.just(false);
+                });
+    }
+
+    /**
+     * Creates a decoder verifying RS256-signed tokens with these keys and validating their timestamps and issuer.
+     *
+     * @param issuer The issuer the tokens must have.
+     * @return The decoder.
+     */
+    public ReactiveJwtDecoder decoder(String issuer) {
+        var decoder = NimbusReactiveJwtDecoder.withJwkSource(this::select).build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuer));
+        return decoder;
+    }
+
+    private Flux<JWK> select(SignedJWT signedJwt) {
+        return Flux.fromIterable(new JWKSelector(JWKMatcher.forJWSHeader(signedJwt.getHeader())).select(jwkSet.get()));
+    }
+
+    private boolean swap(JWKSet next) {
+        var previous = jwkSet.getAndSet(next);
+        // toString() renders the public keys only, which is all that is used here.
+        if (previous.toString().equals(next.toString())) {
+            return false;
+        }
+        log.info("Signing keys in {} changed, now {} keys", location, next.size());
+        eventPublisher.publishEvent(new JwkSetChangedEvent(this));
+        return true;
+    }
+
+    private JWKSet read() throws IOException, ParseException {
+        try (var in = location.getInputStream()) {
+            return JWKSet.load(in);
+        }
+    }
+}
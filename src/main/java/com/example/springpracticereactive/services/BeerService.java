@@ -1,6 +1,12 @@
 package com.example.springpracticereactive.services;
 
+import com.example.springpracticereactive.model.BatchItemResultDTO;
+import com.example.springpracticereactive.model.BeerChangeEventDTO;
 import com.example.springpracticereactive.model.BeerDTO;
+import com.example.springpracticereactive.model.BeerFilter;
+import com.example.springpracticereactive.model.BeerSearchResultDTO;
+import com.example.springpracticereactive.model.BeerStyleStatsDTO;
+import com.example.springpracticereactive.model.InventoryDTO;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -17,6 +23,16 @@ public interface BeerService {
      */
     Flux<BeerDTO> listBeers();
 
+    /**
+     * Retrieves one page of beers matching a filter, ordered by id and starting after the given id.
+     *
+     * @param filter The filter criteria, {@link BeerFilter#NONE} to list every beer.
+     * @param after  The id of the last beer of the previous page, or 0 for the first page.
+     * @param limit  The maximum number of beers to return.
+     * @return A Flux stream of at most {@code limit} BeerDTO objects.
+     */
+    Flux<BeerDTO> listBeers(BeerFilter filter, Integer after, int limit);
+
     /**
      * Retrieves a beer by its unique identifier.
      *
@@ -25,6 +41,38 @@ public interface BeerService {
      */
     Mono<BeerDTO> getBeerById(Integer id);
 
+    /**
+     * Retrieves a beer by its UPC.
+     *
+     * @param upc The UPC of the beer.
+     * @return A Mono containing the BeerDTO object, or empty if not found.
+     */
+    Mono<BeerDTO> getBeerByUpc(String upc);
+
+    /**
+     * Retrieves the count, total quantity on hand and min/avg/max price of every beer style.
+     *
+     * @return A Flux of the statistics of every style that has at least one beer, ordered by style.
+     */
+    Flux<BeerStyleStatsDTO> getBeerStats();
+
+    /**
+     * Finds the beers whose name and style are most similar to a search text, tolerating partial and misspelled names.
+     *
+     * @param query The search text.
+     * @param limit The maximum number of results.
+     * @return A Flux of the best matches, most similar first.
+     */
+    Flux<BeerSearchResultDTO> searchBeers(String query, int limit);
+
+    /**
+     * Streams the beers created, changed and deleted from now on, or after a given event.
+     *
+     * @param lastEventId The id of the last change event the client received, or null to only receive new events.
+     * @return A Flux of change events that does not complete while the client is connected.
+     */
+    Flux<BeerChangeEventDTO> beerChanges(Long lastEventId);
+
     /**
      * Saves a new beer entity.
      *
@@ -33,23 +81,57 @@ public interface BeerService {
      */
     Mono<BeerDTO> saveNewBeer(BeerDTO beerDTO);
 
+    /**
+     * Saves a stream of new beer entities in chunks of multi-row inserts.
+     * Every item is validated on its own; invalid items are reported and skipped
+     * without failing the rest of the request.
+     *
+     * @param beerDTOs The BeerDTO objects to be saved.
+     * @return A Flux with one result per item, in request order.
+     */
+    Flux<BatchItemResultDTO> saveNewBeers(Flux<BeerDTO> beerDTOs);
+
     /**
      * Updates an existing beer entity.
      *
-     * @param id      The unique identifier of the beer to be updated.
-     * @param beerDTO The BeerDTO object containing the updated beer details.
-     * @return A Mono containing the updated BeerDTO object.
+     * @param id              The unique identifier of the beer to be updated.
+     * @param beerDTO         The BeerDTO object containing the updated beer details.
+     * @param expectedVersion The version the beer must still have, or null to update unconditionally.
+     * @return A Mono containing the updated BeerDTO object, empty if the beer does not exist, or an
+     * OptimisticLockingFailureException if its version does not match.
      */
-    Mono<BeerDTO> updateBeer(Integer id, BeerDTO beerDTO);
+    Mono<BeerDTO> updateBeer(Integer id, BeerDTO beerDTO, Integer expectedVersion);
 
     /**
      * Partially updates an existing beer entity.
      *
-     * @param id      The unique identifier of the beer to be patched.
-     * @param beerDTO The BeerDTO object containing the partial updates.
-     * @return A Mono containing the patched BeerDTO object.
+     * @param id              The unique identifier of the beer to be patched.
+     * @param beerDTO         The BeerDTO object containing the partial updates.
+     * @param expectedVersion The version the beer must still have, or null to patch unconditionally.
+     * @return A Mono containing the patched BeerDTO object, empty if the beer does not exist, or an
+     * OptimisticLockingFailureException if its version does not match.
+     */
+    Mono<BeerDTO> patchBeer(Integer id, BeerDTO beerDTO, Integer expectedVersion);
+
+    /**
+     * Atomically adds a signed delta to the quantity on hand of a beer.
+     *
+     * @param id    The unique identifier of the beer.
+     * @param delta The number of units to add, negative to remove units.
+     * @return A Mono containing the new stock of the beer, empty if the beer does not exist, or an
+     * InsufficientStockException if the quantity on hand would become negative.
+     */
+    Mono<InventoryDTO> adjustInventory(Integer id, int delta);
+
+    /**
+     * Queues a signed delta to the quantity on hand of a beer, to be written in the background together with
+     * the other pending adjustments. Only available when the write-behind mode is enabled.
+     *
+     * @param id    The unique identifier of the beer.
+     * @param delta The number of units to add, negative to remove units.
+     * @return A Mono emitting true once the delta is queued, or empty if the beer does not exist.
      */
-    Mono<BeerDTO> patchBeer(Integer id, BeerDTO beerDTO);
+    Mono<Boolean> queueInventoryAdjustment(Integer id, int delta);
 
     /**
      * Deletes a beer entity by its unique identifier.
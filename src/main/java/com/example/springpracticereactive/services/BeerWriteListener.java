@@ -0,0 +1,28 @@
+package com.example.springpracticereactive.services;
+
+import com.example.springpracticereactive.domain.Beer;
+
+/**
+ * Callback for components keeping derived state of the beer table up to date, notified after every write
+ * made through the service layer.
+ * <p>
+ * Listeners are called on the thread completing the write, usually a database driver thread, so they must be
+ * quick and must not block. Notifications of concurrent writes of the same beer may arrive out of order; the
+ * version of the beer tells which state is the latest.
+ */
+public interface BeerWriteListener {
+
+    /**
+     * Called after a beer was created or changed.
+     *
+     * @param beer The new state of the beer, including its id and version.
+     */
+    void beerSaved(Beer beer);
+
+    /**
+     * Called after a beer was deleted.
+     *
+     * @param id The id of the deleted beer.
+     */
+    void beerDeleted(Integer id);
+}
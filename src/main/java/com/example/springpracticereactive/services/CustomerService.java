@@ -1,6 +1,8 @@
 package com.example.springpracticereactive.services;
 
 import com.example.springpracticereactive.model.CustomerDTO;
+import com.example.springpracticereactive.model.CustomerNameDTO;
+import com.example.springpracticereactive.model.ImportProgressDTO;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -17,6 +19,15 @@ public interface CustomerService {
      */
     Flux<CustomerDTO> listCustomers();
 
+    /**
+     * Lists one page of customers ordered by id, starting after the given id.
+     *
+     * @param after the id of the last customer of the previous page, or 0 for the first page.
+     * @param limit the maximum number of customers to return.
+     * @return a Flux stream of at most {@code limit} CustomerDTO objects.
+     */
+    Flux<CustomerDTO> listCustomers(Integer after, int limit);
+
     /**
      * Retrieves a customer by their ID.
      *
@@ -25,6 +36,15 @@ public interface CustomerService {
      */
     Mono<CustomerDTO> getCustomerById(Integer id);
 
+    /**
+     * Retrieves the customers whose name starts with a prefix, ignoring case.
+     *
+     * @param prefix the start of the name.
+     * @param limit  the maximum number of customers to return.
+     * @return a Flux of the ids and names of the matching customers, ordered by name.
+     */
+    Flux<CustomerNameDTO> autocompleteCustomers(String prefix, int limit);
+
     /**
      * Saves a new customer.
      *
@@ -33,23 +53,36 @@ public interface CustomerService {
      */
     Mono<CustomerDTO> saveNewCustomer(CustomerDTO customerDTO);
 
+    /**
+     * Imports a stream of new customers in batches of multi-row inserts.
+     * Invalid rows are counted and skipped without failing the import.
+     *
+     * @param customerDTOs the CustomerDTO objects to import, typically parsed from an uploaded file.
+     * @return a Flux of ImportProgressDTO objects, one per batch written and a final one when complete.
+     */
+    Flux<ImportProgressDTO> importCustomers(Flux<CustomerDTO> customerDTOs);
+
     /**
      * Updates an existing customer.
      *
-     * @param id          the ID of the customer to update.
-     * @param customerDTO the CustomerDTO object containing updated customer data.
-     * @return a Mono containing the updated CustomerDTO object.
+     * @param id              the ID of the customer to update.
+     * @param customerDTO     the CustomerDTO object containing updated customer data.
+     * @param expectedVersion the version the customer must still have, or null to update unconditionally.
+     * @return a Mono containing the updated CustomerDTO object, empty if the customer does not exist, or an
+     * OptimisticLockingFailureException if its version does not match.
      */
-    Mono<CustomerDTO> updateCustomer(Integer id, CustomerDTO customerDTO);
+    Mono<CustomerDTO> updateCustomer(Integer id, CustomerDTO customerDTO, Integer expectedVersion);
 
     /**
      * Partially updates an existing customer.
      *
-     * @param id          the ID of the customer to patch.
-     * @param customerDTO the CustomerDTO object containing partial customer data.
-     * @return a Mono containing the patched CustomerDTO object.
+     * @param id              the ID of the customer to patch.
+     * @param customerDTO     the CustomerDTO object containing partial customer data.
+     * @param expectedVersion the version the customer must still have, or null to patch unconditionally.
+     * @return a Mono containing the patched CustomerDTO object, empty if the customer does not exist, or an
+     * OptimisticLockingFailureException if its version does not match.
      */
-    Mono<CustomerDTO> patchCustomer(Integer id, CustomerDTO customerDTO);
+    Mono<CustomerDTO> patchCustomer(Integer id, CustomerDTO customerDTO, Integer expectedVersion);
 
     /**
      * Deletes a customer by their ID.
@@ -0,0 +1,18 @@
+package com.example.springpracticereactive.services;
+
+/**
+ * Thrown when an inventory adjustment would bring the quantity on hand of a beer below zero.
+ * The stock is left unchanged.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    /**
+     * Constructor for InsufficientStockException.
+     *
+     * @param beerId The id of the beer whose stock was not adjusted.
+     * @param delta  The rejected change of the quantity on hand.
+     */
+    public InsufficientStockException(Integer beerId, int delta) {
+        super("Beer " + beerId + " has fewer than " + -delta + " units on hand");
+    }
+}
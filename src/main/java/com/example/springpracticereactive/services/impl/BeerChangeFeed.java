@@ -0,0 +1,158 @@
+package com.example.springpracticereactive.services.impl;
+
+import com.example.springpracticereactive.domain.Beer;
+import com.example.springpracticereactive.mappers.BeerMapper;
+import com.example.springpracticereactive.model.BeerChangeEventDTO;
+import com.example.springpracticereactive.services.BeerWriteListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+
+/**
+ * BeerChangeFeed publishes every beer written through the service layer as an event to all connected subscribers.
+ * <p>
+ * Events go through one shared replay sink that retains the last {@code beer.changes.replay-size} events, which
+ * lets a reconnecting client resume after the last event id it received instead of reloading everything. A client
+ * asking for events that are no longer retained first gets a {@link BeerChangeEventDTO.Type#RESYNC} event.
+ * <p>
+ * Each subscriber drains the sink into its own buffer of {@code beer.changes.buffer-size} events and receives them
+ * on a worker of its own, so the mapping and encoding of the events run off the writer's thread and publishing
+ * never waits for a subscriber. When a slow subscriber's buffer is full, {@code beer.changes.overflow} decides
+ * between dropping its oldest buffered event and disconnecting it; either way the writer is not slowed down.
+ * <p>
+ * Publishes the {@code beer.changes.subscribers} gauge and the {@code beer.changes.dropped} and
+ * {@code beer.changes.disconnected} counters.
+ */
+@Component
+public class BeerChangeFeed implements BeerWriteListener {
+
+    /**
+     * What happens to a subscriber whose buffer is full.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * The oldest buffered event is dropped to make room for the new one.
+         */
+        DROP_OLDEST,
+
+        /**
+         * The subscriber is disconnected; it may reconnect and resume from its last event id.
+         */
+        DISCONNECT
+    }
+
+    private final BeerMapper beerMapper;
+    private final int replaySize;
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Sinks.Many<BeerChangeEventDTO> sink;
+    private final Counter dropped;
+    private final Counter disconnected;
+    private final Object publishLock = new Object();
+    private long lastEventId;
+
+    /**
+     * Constructor for BeerChangeFeed.
+     *
+     * @param beerMapper     The mapper converting the written beers to the DTOs sent to subscribers.
+     * @param meterRegistry  The registry the feed metrics are published to.
+     * @param replaySize     The number of past events retained for resuming subscribers.
+     * @param bufferSize     The number of events buffered per subscriber.
+     * @param overflowPolicy What happens to a subscriber whose buffer is full.
+     */
+    public BeerChangeFeed(BeerMapper beerMapper, MeterRegistry meterRegistry,
+                          @Value("${beer.changes.replay-size:1024}") int replaySize,
+                          @Value("${beer.changes.buffer-size:256}") int bufferSize,
+                          @Value("${beer.changes.overflow:DROP_OLDEST}") OverflowPolicy overflowPolicy) {
+        this.beerMapper = beerMapper;
+        this.replaySize = replaySize;
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+        this.sink = Sinks.many().replay().limit(replaySize);
+
+        Gauge.builder("beer.changes.subscribers", sink, Sinks.Many::currentSubscriberCount)
+                .description("Subscribers connected to the beer change feed")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("beer.changes.dropped")
+                .description("Beer change events dropped from the buffer of a slow subscriber")
+                .register(meterRegistry);
+        this.disconnected = Counter.builder("beer.changes.disconnected")
+                .description("Slow subscribers disconnected from the beer change feed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes a created or changed beer. A beer at version 0 has not been updated since it was inserted.
+     *
+     * @param beer The new state of the beer.
+     */
+    @Override
+    public void beerSaved(Beer beer) {
+        var type = beer.version() == null || beer.version() == 0
+                ? BeerChangeEventDTO.Type.CREATED
+                : BeerChangeEventDTO.Type.UPDATED;
+        publish(type, beer.id(), beer);
+    }
+
+    @Override
+    public void beerDeleted(Integer id) {
+        publish(BeerChangeEventDTO.Type.DELETED, id, null);
+    }
+
+    /**
+     * Returns the events published from now on, or after a given event id.
+     *
+     * @param lastEventId The id of the last event the client received, or null to only receive new events.
+     * @return A Flux of the events, starting with a RESYNC event if the requested ones are no longer retained.
+     */
+    public Flux<BeerChangeEventDTO> changes(Long lastEventId) {
+        return Flux.defer(() -> {
+            long since;
+            boolean resync;
+            synchronized (publishLock) {
+                var oldestRetained = Math.max(1, this.lastEventId - replaySize + 1);
+                resync = lastEventId != null && (lastEventId > this.lastEventId || lastEventId < oldestRetained - 1);
+                since = lastEventId == null || resync ? this.lastEventId : lastEventId;
+            }
+
+            // The replay sink hands a new subscriber the retained events first; the filter keeps only the newer ones,
+            // so an event published between reading lastEventId and subscribing is neither lost nor repeated.
+            var events = sink.asFlux().filter(event -> event.id() > since);
+            events = switch (overflowPolicy) {
+                case DROP_OLDEST -> events.onBackpressureBuffer(bufferSize, _ -> dropped.increment(),
+                        BufferOverflowStrategy.DROP_OLDEST);
+                case DISCONNECT -> events.onBackpressureBuffer(bufferSize)
+                        .onErrorResume(Exceptions::isOverflow, _ -> {
+                            disconnected.increment();
+                            return Flux.empty();
+                        });
+            };
+            // Without this hop, a subscriber with outstanding demand would map and encode the event on the
+            // writer's thread while it holds the publish lock. A prefetch of 1 keeps the buffer size the bound.
+            events = events.publishOn(Schedulers.parallel(), 1);
+
+            return resync
+                    ? events.startWith(new BeerChangeEventDTO(since, BeerChangeEventDTO.Type.RESYNC, null, null, Instant.now()))
+                    : events;
+        });
+    }
+
+    private void publish(BeerChangeEventDTO.Type type, Integer beerId, Beer beer) {
+        var beerDTO = beer == null ? null : beerMapper.beerToBeerDTO(beer);
+        // The lock keeps ids in emission order and serializes the emissions, which the sink requires.
+        // Emitting only queues the event for each subscriber's worker, so the lock is held briefly.
+        synchronized (publishLock) {
+            sink.tryEmitNext(new BeerChangeEventDTO(++lastEventId, type, beerId, beerDTO, Instant.now()));
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.springpracticereactive.services.impl;
+
+import com.example.springpracticereactive.domain.Beer;
+import com.example.springpracticereactive.model.BeerSearchResultDTO;
+import com.example.springpracticereactive.repositories.BeerRepository;
+import com.example.springpracticereactive.services.BeerWriteListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * BeerSearchIndex is an in-memory trigram index over the name and style of every beer, answering fuzzy
+ * searches without the table scan a {@code LIKE '%x%'} query needs.
+ * <p>
+ * Text is lower-cased and split into words, and every word, padded with two boundary marks in front and one
+ * behind, is cut into trigrams: {@code "cat"} gives {@code $$c, $ca, cat, at$}. A trigram is packed into an
+ * int of three 6-bit character codes, which directly indexes an array of posting lists; each posting list is
+ * a sorted {@code int[]} of beer ids. A search merges the posting lists of the query trigrams in place, k-way
+ * with a small heap of cursors, so the ids come out in order and the length of a run of equal ids is the number
+ * of trigrams the beer shares with the query; the beers are ranked by the Jaccard similarity of the two trigram
+ * sets. Nothing proportional to the posting lists is copied or sorted per search. A misspelling only breaks the
+ * trigrams around it, so the beer still ranks high.
+ * <p>
+ * The index is built from the table once the application is ready and kept up to date as a
+ * {@link BeerWriteListener}. Searches share a read lock; writes take the write lock for the few posting lists
+ * they touch. The ids of deleted beers are remembered, so a save notified after the delete, e.g. from a
+ * {@link #load()} scan that read the row before it was deleted, does not bring the beer back; ids are never reused.
+ */
+@Component
+public class BeerSearchIndex implements BeerWriteListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BeerSearchIndex.class);
+
+    private static final int CHAR_BITS = 6;
+    private static final int BOUNDARY = 0;
+    private static final int TRIGRAM_SPACE = 1 << (3 * CHAR_BITS);
+
+    private final BeerRepository beerRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int[][] postings = new int[TRIGRAM_SPACE][];
+    private final int[] postingSizes = new int[TRIGRAM_SPACE];
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final Set<Integer> deleted = new HashSet<>();
+    private volatile boolean loaded;
+
+    /**
+     * The indexed fields of a beer and its trigrams, sorted and without duplicates.
+     */
+    private record Document(String beerName, String beerStyle, int[] trigrams, int version) {
+    }
+
+    /**
+     * A candidate of a search with its similarity to the query.
+     */
+    private record Hit(int id, double score) {
+    }
+
+    /**
+     * Constructor for BeerSearchIndex.
+     *
+     * @param beerRepository The repository the index is built from.
+     */
+    public BeerSearchIndex(BeerRepository beerRepository) {
+        this.beerRepository = beerRepository;
+    }
+
+    /**
+     * Builds the index from the beer table.
+     * Runs before the application reports itself ready to accept traffic; writes made while it runs are
+     * merged by version.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        var start = System.nanoTime();
+        beerRepository.findAll()
+                .doOnNext(this::beerSaved)
+                .blockLast();
+        loaded = true;
+        log.info("Indexed {} beers for search in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Tells whether the index has been built.
+     *
+     * @return true once {@link #load()} completed.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the number of indexed beers.
+     *
+     * @return The number of beers.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the beers whose name and style are most similar to the query.
+     *
+     * @param query The search text, e.g. a partial or misspelled beer name.
+     * @param limit The maximum number of results.
+     * @return The best matches, most similar first; beers sharing no trigram with the query are never returned.
+     */
+    public List<BeerSearchResultDTO> search(String query, int limit) {
+        var queryTrigrams = trigrams(query);
+        if (queryTrigrams.length == 0 || limit < 1) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // One cursor per non-empty posting list, kept in a min-heap ordered by the id under the cursor.
+            var lists = new int[queryTrigrams.length][];
+            var sizes = new int[queryTrigrams.length];
+            var positions = new int[queryTrigrams.length];
+            var heap = new int[queryTrigrams.length];
+            var heapSize = 0;
+            for (var trigram : queryTrigrams) {
+                if (postingSizes[trigram] > 0) {
+                    lists[heapSize] = postings[trigram];
+                    sizes[heapSize] = postingSizes[trigram];
+                    heap[heapSize] = heapSize;
+                    heapSize++;
+                }
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(heap, heapSize, i, lists, positions);
+            }
+
+            // Min-heap of the best hits so far; the weakest is evicted when a better one arrives.
+            var best = new PriorityQueue<>(limit + 1,
+                    Comparator.comparingDouble(Hit::score).thenComparing(Hit::id, Comparator.reverseOrder()));
+            while (heapSize > 0) {
+                var id = lists[heap[0]][positions[heap[0]]];
+                var shared = 0;
+                while (heapSize > 0 && lists[heap[0]][positions[heap[0]]] == id) {
+                    shared++;
+                    var cursor = heap[0];
+                    if (++positions[cursor] == sizes[cursor]) {
+                        heap[0] = heap[--heapSize];
+                    }
+                    siftDown(heap, heapSize, 0, lists, positions);
+                }
+                var documentTrigrams = documents.get(id).trigrams().length;
+                var score = (double) shared / (queryTrigrams.length + documentTrigrams - shared);
+                // Ids arrive in ascending order, so a hit only displaces the weakest one with a higher score.
+                if (best.size() < limit || score > best.peek().score()) {
+                    best.offer(new Hit(id, score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+
+            var results = new ArrayList<BeerSearchResultDTO>(best.size());
+            while (!best.isEmpty()) {
+                var hit = best.poll();
+                var document = documents.get(hit.id());
+                results.add(new BeerSearchResultDTO(hit.id(), document.beerName(), document.beerStyle(), hit.score()));
+            }
+            return results.reversed();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void beerSaved(Beer beer) {
+        var version = Objects.requireNonNullElse(beer.version(), 0);
+        lock.writeLock().lock();
+        try {
+            var previous = documents.get(beer.id());
+            if (deleted.contains(beer.id()) || previous != null && previous.version() >= version) {
+                return;
+            }
+            var next = new Document(beer.beerName(), beer.beerStyle(),
+                    trigrams(Objects.requireNonNullElse(beer.beerName(), "") + " "
+                            + Objects.requireNonNullElse(beer.beerStyle(), "")), version);
+            if (previous != null) {
+                for (var trigram : previous.trigrams()) {
+                    removePosting(trigram, beer.id());
+                }
+            }
+            for (var trigram : next.trigrams()) {
+                addPosting(trigram, beer.id());
+            }
+            documents.put(beer.id(), next);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void beerDeleted(Integer id) {
+        lock.writeLock().lock();
+        try {
+            deleted.add(id);
+            var previous = documents.remove(id);
+            if (previous != null) {
+                for (var trigram : previous.trigrams()) {
+                    removePosting(trigram, id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Restores the heap order below a position of the cursor heap, comparing cursors by the id they point at.
+     */
+    private static void siftDown(int[] heap, int size, int position, int[][] lists, int[] positions) {
+        var cursor = heap[position];
+        var id = size > position ? lists[cursor][positions[cursor]] : 0;
+        while (true) {
+            var child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && lists[heap[child + 1]][positions[heap[child + 1]]]
+                    < lists[heap[child]][positions[heap[child]]]) {
+                child++;
+            }
+            if (id <= lists[heap[child]][positions[heap[child]]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = cursor;
+    }
+
+    /**
+     * Inserts an id into a posting list, keeping it sorted. Ids are generated in ascending order, so this is
+     * usually an append.
+     */
+    private void addPosting(int trigram, int id) {
+        var list = postings[trigram];
+        var size = postingSizes[trigram];
+        if (list == null) {
+            list = new int[4];
+            postings[trigram] = list;
+        }
+        var position = size == 0 || list[size - 1] < id ? size : Arrays.binarySearch(list, 0, size, id);
+        if (position >= 0 && position < size) {
+            return;
+        }
+        position = position < 0 ? -position - 1 : position;
+        if (size == list.length) {
+            list = Arrays.copyOf(list, size * 2);
+            postings[trigram] = list;
+        }
+        System.arraycopy(list, position, list, position + 1, size - position);
+        list[position] = id;
+        postingSizes[trigram] = size + 1;
+    }
+
+    private void removePosting(int trigram, int id) {
+        var list = postings[trigram];
+        var size = postingSizes[trigram];
+        var position = list == null ? -1 : Arrays.binarySearch(list, 0, size, id);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(list, position + 1, list, position, size - position - 1);
+        postingSizes[trigram] = size - 1;
+    }
+
+    /**
+     * Cuts a text into its trigrams.
+     *
+     * @param text The text to cut.
+     * @return The packed trigrams, sorted and without duplicates.
+     */
+    static int[] trigrams(String text) {
+        var result = new int[text.length() * 3 + 3];
+        var count = 0;
+        var first = BOUNDARY;
+        var second = BOUNDARY;
+        var inWord = false;
+        for (int i = 0; i <= text.length(); i++) {
+            var code = i < text.length() ? code(Character.toLowerCase(text.charAt(i))) : BOUNDARY;
+            if (code == BOUNDARY) {
+                if (inWord) {
+                    result[count++] = pack(first, second, BOUNDARY);
+                    first = BOUNDARY;
+                    second = BOUNDARY;
+                    inWord = false;
+                }
+                continue;
+            }
+            result[count++] = pack(first, second, code);
+            first = second;
+            second = code;
+            inWord = true;
+        }
+        Arrays.sort(result, 0, count);
+        var distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || result[distinct - 1] != result[i]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    private static int pack(int first, int second, int third) {
+        return (first << (2 * CHAR_BITS)) | (second << CHAR_BITS) | third;
+    }
+
+    /**
+     * Maps a lower-case character to its 6-bit code: letters and digits get their own code, other letters
+     * share the remaining ones, and everything else separates words.
+     */
+    private static int code(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        if (Character.isLetter(c)) {
+            return 37 + c % 27;
+        }
+        return BOUNDARY;
+    }
+}
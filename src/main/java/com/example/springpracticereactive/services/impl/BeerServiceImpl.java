@@ -1,13 +1,39 @@
 package com.example.springpracticereactive.services.impl;
 
+import com.example.springpracticereactive.config.CacheConfig;
 import com.example.springpracticereactive.domain.Beer;
 import com.example.springpracticereactive.mappers.BeerMapper;
+import com.example.springpracticereactive.metrics.CallMetrics;
+import com.example.springpracticereactive.model.BatchItemResultDTO;
+import com.example.springpracticereactive.model.BeerChangeEventDTO;
 import com.example.springpracticereactive.model.BeerDTO;
+import com.example.springpracticereactive.model.BeerFilter;
+import com.example.springpracticereactive.model.BeerSearchResultDTO;
+import com.example.springpracticereactive.model.BeerStyleStatsDTO;
+import com.example.springpracticereactive.model.InventoryDTO;
 import com.example.springpracticereactive.repositories.BeerRepository;
+import com.example.springpracticereactive.repositories.BeerRepositoryCustom.BeerUpdate;
 import com.example.springpracticereactive.services.BeerService;
+import com.example.springpracticereactive.services.BeerWriteListener;
+import com.example.springpracticereactive.services.InsufficientStockException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Implementation of the BeerService interface for managing beers in a reactive Spring Boot application.
@@ -18,16 +44,51 @@ public class BeerServiceImpl implements BeerService {
 
     private final BeerRepository beerRepository;
     private final BeerMapper beerMapper;
+    private final Validator validator;
+    private final CallMetrics metrics;
+    private final CacheManager cacheManager;
+    private final ObjectProvider<InventoryWriteBehind> inventoryWriteBehind;
+    private final BeerStatistics beerStatistics;
+    private final BeerSearchIndex beerSearchIndex;
+    private final BeerChangeFeed beerChangeFeed;
+    private final List<BeerWriteListener> writeListeners;
+    private final SingleFlight<Integer, BeerDTO> beerLookups;
+    private final int batchChunkSize;
 
     /**
      * Constructor for BeerServiceImpl.
      *
-     * @param beerRepository the repository for Beer entities.
-     * @param beerMapper     the mapper for converting between Beer and BeerDTO objects.
+     * @param beerRepository       the repository for Beer entities.
+     * @param beerMapper           the mapper for converting between Beer and BeerDTO objects.
+     * @param validator            the Bean Validation validator used for bulk creates.
+     * @param metrics              the timers recording the service and repository calls.
+     * @param cacheManager         the cache manager whose UPC cache is evicted by the UPCs of the written beers.
+     * @param inventoryWriteBehind the buffer for queued inventory adjustments, present only if enabled.
+     * @param beerStatistics       the in-memory per-style statistics.
+     * @param beerSearchIndex      the in-memory trigram index for beer searches.
+     * @param beerChangeFeed       the feed of beer change events.
+     * @param writeListeners       the listeners notified after every write.
+     * @param meterRegistry        the registry the lookup coalescing metrics are published to.
+     * @param batchChunkSize       the number of rows written per multi-row INSERT in bulk creates.
      */
-    public BeerServiceImpl(BeerRepository beerRepository, BeerMapper beerMapper) {
+    public BeerServiceImpl(BeerRepository beerRepository, BeerMapper beerMapper, Validator validator,
+                           CallMetrics metrics, CacheManager cacheManager,
+                           ObjectProvider<InventoryWriteBehind> inventoryWriteBehind,
+                           BeerStatistics beerStatistics, BeerSearchIndex beerSearchIndex, BeerChangeFeed beerChangeFeed,
+                           List<BeerWriteListener> writeListeners, MeterRegistry meterRegistry,
+                           @Value("${beer.batch.chunk-size:500}") int batchChunkSize) {
         this.beerRepository = beerRepository;
         this.beerMapper = beerMapper;
+        this.validator = validator;
+        this.metrics = metrics;
+        this.cacheManager = cacheManager;
+        this.inventoryWriteBehind = inventoryWriteBehind;
+        this.beerStatistics = beerStatistics;
+        this.beerSearchIndex = beerSearchIndex;
+        this.beerChangeFeed = beerChangeFeed;
+        this.writeListeners = writeListeners;
+        this.beerLookups = new SingleFlight<>("BeerService.getBeerById", meterRegistry);
+        this.batchChunkSize = batchChunkSize;
     }
 
     /**
@@ -37,20 +98,100 @@ public class BeerServiceImpl implements BeerService {
      */
     @Override
     public Flux<BeerDTO> listBeers() {
-        return beerRepository.findAll()
-                .map(beerMapper::beerToBeerDTO);
+        return metrics.service("BeerService.listBeers",
+                metrics.repository("BeerRepository.findAll", beerRepository.findAll())
+                        .map(beerMapper::beerToBeerDTO));
+    }
+
+    /**
+     * Lists one page of beers matching a filter, using keyset pagination on the id.
+     * An empty filter runs the static page query; otherwise only the criteria that are set are queried.
+     *
+     * @param filter the filter criteria.
+     * @param after  the id of the last beer of the previous page, or 0 for the first page.
+     * @param limit  the maximum number of beers to return.
+     * @return a Flux stream of at most {@code limit} BeerDTO objects ordered by id.
+     */
+    @Override
+    public Flux<BeerDTO> listBeers(BeerFilter filter, Integer after, int limit) {
+        var beers = filter.isEmpty()
+                ? metrics.repository("BeerRepository.findPageAfter", beerRepository.findPageAfter(after, limit))
+                : metrics.repository("BeerRepository.findPage", beerRepository.findPage(filter, after, limit));
+
+        return metrics.service("BeerService.listBeersPage", beers.map(beerMapper::beerToBeerDTO));
     }
 
     /**
      * Retrieves a beer by its ID.
+     * Results are cached by id in the {@link CacheConfig#BEER_CACHE} cache, which every write of the beer evicts.
+     * Concurrent lookups of the same id share one query, also when caching is disabled.
      *
      * @param id the ID of the beer to retrieve.
      * @return a Mono containing the BeerDTO object if found, or empty if not.
      */
     @Override
+    @Cacheable(cacheNames = CacheConfig.BEER_CACHE, key = "#id", sync = true)
     public Mono<BeerDTO> getBeerById(Integer id) {
-        return beerRepository.findById(id)
-                .map(beerMapper::beerToBeerDTO);
+        return metrics.service("BeerService.getBeerById", beerLookups.execute(id, () ->
+                metrics.repository("BeerRepository.findById", beerRepository.findById(id))
+                        .map(beerMapper::beerToBeerDTO)));
+    }
+
+    /**
+     * Retrieves a beer by its UPC.
+     * Results are cached by UPC in the {@link CacheConfig#BEER_UPC_CACHE} cache. Since a write may change
+     * or remove the UPC of a beer, every update and delete evicts the UPC the beer had before and after it.
+     *
+     * @param upc the UPC of the beer to retrieve.
+     * @return a Mono containing the BeerDTO object if found, or empty if not.
+     */
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BEER_UPC_CACHE, key = "#upc", sync = true)
+    public Mono<BeerDTO> getBeerByUpc(String upc) {
+        return metrics.service("BeerService.getBeerByUpc",
+                metrics.repository("BeerRepository.findByUpc", beerRepository.findByUpc(upc))
+                        .map(beerMapper::beerToBeerDTO));
+    }
+
+    /**
+     * Returns the per-style statistics from the in-memory aggregates, without querying the database.
+     *
+     * @return a Flux of the statistics of every style, or an IllegalStateException while they are being built.
+     */
+    @Override
+    public Flux<BeerStyleStatsDTO> getBeerStats() {
+        return Flux.defer(() -> beerStatistics.isLoaded()
+                ? Flux.fromIterable(beerStatistics.stats())
+                : Flux.error(new IllegalStateException("Beer statistics are still being built")));
+    }
+
+    /**
+     * Searches the in-memory trigram index, without querying the database.
+     *
+     * @param query the search text.
+     * @param limit the maximum number of results.
+     * @return a Flux of the best matches, or an IllegalStateException while the index is being built.
+     */
+    @Override
+    public Flux<BeerSearchResultDTO> searchBeers(String query, int limit) {
+        // The search is CPU-bound and takes the index read lock, so it runs on a parallel worker
+        // instead of the event loop.
+        return metrics.service("BeerService.searchBeers", Flux.defer(() -> beerSearchIndex.isLoaded()
+                        ? Flux.fromIterable(beerSearchIndex.search(query, limit))
+                        : Flux.<BeerSearchResultDTO>error(new IllegalStateException("Beer search index is still being built")))
+                .subscribeOn(Schedulers.parallel()));
+    }
+
+    /**
+     * Streams the change events published by the {@link BeerChangeFeed}, which receives every write of this service
+     * as a {@link BeerWriteListener}.
+     *
+     * @param lastEventId the id of the last change event the client received, or null to only receive new events.
+     * @return a Flux of change events.
+     */
+    @Override
+    public Flux<BeerChangeEventDTO> beerChanges(Long lastEventId) {
+        return beerChangeFeed.changes(lastEventId);
     }
 
     /**
@@ -66,80 +207,234 @@ public class BeerServiceImpl implements BeerService {
 
         // After the entity is saved, the resulting Mono<Beer> is transformed back into a Mono<BeerDTO>
         // using the beerToBeerDTO method from the BeerMapper
-        return beerRepository.save(beerMapper.beerDTOToBeer(beerDTO))
-                .map(beerMapper::beerToBeerDTO);
+        return metrics.service("BeerService.saveNewBeer", Mono.defer(() ->
+                metrics.repository("BeerRepository.save", beerRepository.save(beerMapper.beerDTOToBeer(beerDTO)))
+                        .doOnNext(this::notifySaved)
+                        .map(beerMapper::beerToBeerDTO)));
+    }
+
+    /**
+     * Saves a stream of new beers.
+     * Items are grouped into chunks of {@code beer.batch.chunk-size}; each chunk is validated and its valid
+     * items are written with a single multi-row INSERT. Chunks are written one after another, so the
+     * request body is only read as fast as the database accepts rows.
+     *
+     * @param beerDTOs the BeerDTO objects representing the beers to save.
+     * @return a Flux with one result per item, in request order.
+     */
+    @Override
+    public Flux<BatchItemResultDTO> saveNewBeers(Flux<BeerDTO> beerDTOs) {
+        return metrics.service("BeerService.saveNewBeers", beerDTOs.index()
+                .buffer(batchChunkSize)
+                .concatMap(this::saveChunk));
+    }
+
+    /**
+     * Validates and inserts one chunk of a bulk create.
+     *
+     * @param chunk the items of the chunk, paired with their position in the request.
+     * @return a Flux with one result per item of the chunk, in request order.
+     */
+    private Flux<BatchItemResultDTO> saveChunk(List<Tuple2<Long, BeerDTO>> chunk) {
+        var results = new BatchItemResultDTO[chunk.size()];
+        var beers = new ArrayList<Beer>(chunk.size());
+        var positions = new ArrayList<Integer>(chunk.size());
+
+        for (int i = 0; i < chunk.size(); i++) {
+            var index = chunk.get(i).getT1();
+            var beerDTO = chunk.get(i).getT2();
+
+            var errors = validator.validate(beerDTO).stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .toList();
+            if (!errors.isEmpty()) {
+                results[i] = BatchItemResultDTO.rejected(index, BatchItemResultDTO.Status.INVALID, errors);
+                continue;
+            }
+
+            try {
+                beers.add(beerMapper.beerDTOToBeer(beerDTO));
+                positions.add(i);
+            } catch (NumberFormatException e) {
+                results[i] = BatchItemResultDTO.rejected(index, BatchItemResultDTO.Status.INVALID,
+                        List.of("quantityOnHand must be a number"));
+            }
+        }
+
+        return metrics.repository("BeerRepository.insertAll", beerRepository.insertAll(beers))
+                .collectList()
+                .map(ids -> {
+                    for (int j = 0; j < ids.size(); j++) {
+                        var position = positions.get(j);
+                        results[position] = BatchItemResultDTO.created(chunk.get(position).getT1(), ids.get(j));
+                        var beer = beers.get(j);
+                        // insertAll writes version 0 and does not read the rows back.
+                        notifySaved(new Beer(ids.get(j), beer.beerName(), beer.beerStyle(), beer.upc(),
+                                beer.quantityOnHand(), beer.price(), 0, null, null));
+                    }
+                    return Arrays.asList(results);
+                })
+                .onErrorResume(e -> {
+                    // The whole chunk is one statement, so a database error rejects every valid item in it.
+                    for (var position : positions) {
+                        results[position] = BatchItemResultDTO.rejected(chunk.get(position).getT1(),
+                                BatchItemResultDTO.Status.FAILED, List.of(String.valueOf(e.getMessage())));
+                    }
+                    return Mono.just(Arrays.asList(results));
+                })
+                .flatMapIterable(chunkResults -> chunkResults);
     }
 
     /**
      * Updates an existing beer.
      *
-     * @param id      the ID of the beer to update.
-     * @param beerDTO the BeerDTO object containing updated beer data.
+     * @param id              the ID of the beer to update.
+     * @param beerDTO         the BeerDTO object containing updated beer data.
+     * @param expectedVersion the version the beer must still have, or null to update unconditionally.
      * @return a Mono containing the updated BeerDTO object.
      */
     @Override
-    public Mono<BeerDTO> updateBeer(Integer id, BeerDTO beerDTO) {
-        return beerRepository.findById(id).flatMap(
-                foundBeer -> {
-                    // Create a new Beer instance with updated fields but preserve the ID and timestamps
-                    return beerRepository.save(
-                            new Beer(
-                                    foundBeer.id(),
-                                    beerDTO.beerName(),
-                                    beerDTO.beerStyle(),
-                                    beerDTO.upc(),
-                                    beerDTO.quantityOnHand() != null ? Integer.valueOf(beerDTO.quantityOnHand()) : foundBeer.quantityOnHand(),
-                                    beerDTO.price(),
-                                    foundBeer.createdDate(),
-                                    foundBeer.lastModifiedDate()
-                            )
-                    );
-                }).map(beerMapper::beerToBeerDTO);
-
-        // The flatMap operator is then used to process the emitted beer entity.
-        /*
-         * Inside the flatMap block, a new Beer instance is created to reflect the updated values.
-         * Since both the Beer entity and BeerDTO are implemented as immutable records,
-         * the existing beer cannot be modified directly. Instead, a new Beer object is constructed
-         * using the values from the BeerDTO and the existing beer.
-         * */
-
-        /*
-         * The newly created Beer instance is then saved to the database using beerRepository.save(updatedBeer),
-         * which returns a Mono<Beer> containing the saved entity.
-         * Finally, the saved Beer entity is mapped back to a BeerDTO using the beerMapper.beerToBeerDTO method.
-         * This mapping is performed using the map operator, which transforms the emitted Beer into a BeerDTO
-         * before returning it to the caller.
-         * */
+    @CacheEvict(cacheNames = CacheConfig.BEER_CACHE, key = "#id")
+    public Mono<BeerDTO> updateBeer(Integer id, BeerDTO beerDTO, Integer expectedVersion) {
+        // A single UPDATE ... WHERE id = ? writes the new state and returns the row as it was;
+        // no row means the beer does not exist, which the controller turns into a 404.
+        return metrics.service("BeerService.updateBeer", Mono.defer(() ->
+                evictingUpcs(metrics.repository("BeerRepository.updateById",
+                                beerRepository.updateById(id, beerMapper.beerDTOToBeer(beerDTO), expectedVersion)))
+                        .switchIfEmpty(versionConflict(id, expectedVersion))
+                        .doOnNext(this::notifySaved)
+                        .map(beerMapper::beerToBeerDTO)));
     }
 
     /**
      * Partially updates an existing beer.
      *
-     * @param id      the ID of the beer to patch.
-     * @param beerDTO the BeerDTO object containing updated fields.
+     * @param id              the ID of the beer to patch.
+     * @param beerDTO         the BeerDTO object containing updated fields.
+     * @param expectedVersion the version the beer must still have, or null to patch unconditionally.
      * @return a Mono containing the patched BeerDTO object.
      */
     @Override
-    public Mono<BeerDTO> patchBeer(Integer id, BeerDTO beerDTO) {
-        return beerRepository.findById(id)
-                .flatMap(foundBeer -> {
-                    // Create a new Beer with conditionally updated fields
-                    return beerRepository.save(new Beer(
-                            foundBeer.id(),
-                            beerDTO.beerName() != null ? beerDTO.beerName() : foundBeer.beerName(),
-                            beerDTO.beerStyle() != null ? beerDTO.beerStyle() : foundBeer.beerStyle(),
-                            beerDTO.upc() != null ? beerDTO.upc() : foundBeer.upc(),
-                            beerDTO.quantityOnHand() != null ? Integer.valueOf(beerDTO.quantityOnHand()) : foundBeer.quantityOnHand(),
-                            beerDTO.price() != null ? beerDTO.price() : foundBeer.price(),
-                            foundBeer.createdDate(),
-                            foundBeer.lastModifiedDate())
-                    );
+    @CacheEvict(cacheNames = CacheConfig.BEER_CACHE, key = "#id")
+    public Mono<BeerDTO> patchBeer(Integer id, BeerDTO beerDTO, Integer expectedVersion) {
+        // Only the non-null fields of the DTO end up in the SET clause of the UPDATE statement.
+        return metrics.service("BeerService.patchBeer", Mono.defer(() ->
+                evictingUpcs(metrics.repository("BeerRepository.patchById",
+                                beerRepository.patchById(id, beerMapper.beerDTOToBeer(beerDTO), expectedVersion)))
+                        .switchIfEmpty(versionConflict(id, expectedVersion))
+                        .doOnNext(this::notifySaved)
+                        .map(beerMapper::beerToBeerDTO)));
+    }
+
+    /**
+     * Evicts the UPC cache entries of a beer before and after an update that may have changed its UPC.
+     * Both UPCs come back from the UPDATE statement, so the beer is not read before it is written.
+     *
+     * @param update the update, returning the beer before and after it.
+     * @return the beer as the update wrote it.
+     */
+    private Mono<Beer> evictingUpcs(Mono<BeerUpdate> update) {
+        return update.doOnNext(written -> {
+                    evictUpc(written.before().upc());
+                    if (!Objects.equals(written.before().upc(), written.after().upc())) {
+                        evictUpc(written.after().upc());
+                    }
                 })
-                .map(beerMapper::beerToBeerDTO);
+                .map(BeerUpdate::after);
+    }
 
-        // Since records don't support setter methods, we use the ternary operator pattern to only update fields when
-        // the DTO provides non-null values.
+    /**
+     * Explains a conditional update that matched no row.
+     * Only called on that failure path: if the beer still exists its version moved on, otherwise it is missing.
+     *
+     * @param id              the ID of the beer that was not updated.
+     * @param expectedVersion the version the update was conditional on, or null.
+     * @return an OptimisticLockingFailureException if the beer exists, otherwise an empty Mono.
+     */
+    private Mono<Beer> versionConflict(Integer id, Integer expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.empty();
+        }
+        return metrics.repository("BeerRepository.existsById", beerRepository.existsById(id))
+                .filter(exists -> exists)
+                .flatMap(_ -> Mono.<Beer>error(new OptimisticLockingFailureException(
+                        "Beer " + id + " is no longer at version " + expectedVersion)));
+    }
+
+    /**
+     * Adjusts the quantity on hand of a beer.
+     * The change is one conditional UPDATE, so there is no read-modify-write window between concurrent sales.
+     * The UPC is not changed, so only the UPC cache entry of this beer is evicted, using the UPC of the updated row.
+     *
+     * @param id    the ID of the beer to adjust.
+     * @param delta the number of units to add, negative to remove units.
+     * @return a Mono containing the new stock, empty if the beer does not exist.
+     */
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.BEER_CACHE, key = "#id")
+    public Mono<InventoryDTO> adjustInventory(Integer id, int delta) {
+        return metrics.service("BeerService.adjustInventory", Mono.defer(() ->
+                metrics.repository("BeerRepository.adjustQuantityOnHand", beerRepository.adjustQuantityOnHand(id, delta))
+                        .switchIfEmpty(insufficientStock(id, delta))
+                        .doOnNext(beer -> evictUpc(beer.upc()))
+                        .doOnNext(this::notifySaved)
+                        .map(beer -> new InventoryDTO(beer.id(), beer.quantityOnHand(), beer.version()))));
+    }
+
+    /**
+     * Queues an inventory adjustment in the write-behind buffer.
+     * Only the existence of the beer is checked; whether the stock suffices is decided when the delta is written.
+     *
+     * @param id    the ID of the beer to adjust.
+     * @param delta the number of units to add, negative to remove units.
+     * @return a Mono emitting true once the delta is queued, or empty if the beer does not exist.
+     */
+    @Override
+    public Mono<Boolean> queueInventoryAdjustment(Integer id, int delta) {
+        var buffer = inventoryWriteBehind.getIfAvailable();
+        if (buffer == null) {
+            return Mono.error(new IllegalStateException("Inventory write-behind is not enabled"));
+        }
+        return metrics.service("BeerService.queueInventoryAdjustment",
+                metrics.repository("BeerRepository.existsById", beerRepository.existsById(id))
+                        .filter(exists -> exists)
+                        .doOnNext(_ -> buffer.add(id, delta)));
+    }
+
+    /**
+     * Explains an inventory adjustment that matched no row.
+     * Only called on that failure path: if the beer exists its stock was too low, otherwise it is missing.
+     *
+     * @param id    the ID of the beer that was not adjusted.
+     * @param delta the rejected change of the quantity on hand.
+     * @return an InsufficientStockException if the beer exists, otherwise an empty Mono.
+     */
+    private Mono<Beer> insufficientStock(Integer id, int delta) {
+        return metrics.repository("BeerRepository.existsById", beerRepository.existsById(id))
+                .filter(exists -> exists)
+                .flatMap(_ -> Mono.<Beer>error(new InsufficientStockException(id, delta)));
+    }
+
+    /**
+     * Evicts the beer cached under a UPC, if any.
+     *
+     * @param upc the UPC of a written beer, may be null.
+     */
+    private void evictUpc(String upc) {
+        var upcCache = cacheManager.getCache(CacheConfig.BEER_UPC_CACHE);
+        if (upcCache != null && upc != null) {
+            upcCache.evict(upc);
+        }
+    }
+
+    /**
+     * Notifies the write listeners of the new state of a beer, and detaches any lookup of it still in flight.
+     *
+     * @param beer the beer that was created or changed.
+     */
+    private void notifySaved(Beer beer) {
+        beerLookups.forget(beer.id());
+        writeListeners.forEach(listener -> listener.beerSaved(beer));
     }
 
     /**
@@ -149,8 +444,16 @@ public class BeerServiceImpl implements BeerService {
      * @return a Mono that completes when the deletion is done.
      */
     @Override
+    @CacheEvict(cacheNames = CacheConfig.BEER_CACHE, key = "#id")
     public Mono<Void> deleteBeerById(Integer id) {
-        return beerRepository.deleteById(id);
+        return metrics.serviceCompletion("BeerService.deleteBeerById",
+                metrics.repository("BeerRepository.deleteByIdReturning", beerRepository.deleteByIdReturning(id))
+                        .doOnNext(beer -> evictUpc(beer.upc()))
+                        .then()
+                        .doOnSuccess(_ -> {
+                            beerLookups.forget(id);
+                            writeListeners.forEach(listener -> listener.beerDeleted(id));
+                        }));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,188 @@
+package com.example.springpracticereactive.services.impl;
+
+import com.example.springpracticereactive.domain.Beer;
+import com.example.springpracticereactive.model.BeerStyleStatsDTO;
+import com.example.springpracticereactive.repositories.BeerRepository;
+import com.example.springpracticereactive.services.BeerWriteListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * BeerStatistics maintains the count, total quantity on hand and min/avg/max price of every beer style in memory,
+ * so reading them costs one pass over the styles instead of a scan of the beer table.
+ * <p>
+ * The aggregates are built from the table once the application is ready, after the bootstrap data is in place,
+ * and from then on kept up to date as a {@link BeerWriteListener}. To subtract the previous state of a beer
+ * that changed or was deleted, the style, quantity, price and version of every beer are kept as well, roughly
+ * 100 bytes per beer. A notification carrying an older version than the one already applied is ignored.
+ * <p>
+ * A deleted beer leaves a tombstone entry behind, which outranks every version. A save notified after the delete,
+ * from a write-behind flush or from a {@link #load()} scan that read the row before it was deleted, is therefore
+ * ignored instead of bringing the beer back. Ids are never reused, so a tombstone is never wrong.
+ * <p>
+ * Min and max survive deletes because every style keeps its prices in a sorted multiset.
+ */
+@Component
+public class BeerStatistics implements BeerWriteListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BeerStatistics.class);
+
+    // ConcurrentHashMap does not allow null keys; the empty string is not a valid style, so it stands in for null.
+    private static final String NO_STYLE = "";
+
+    private static final Entry DELETED = new Entry(NO_STYLE, 0, null, Integer.MAX_VALUE);
+
+    private final BeerRepository beerRepository;
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, StyleAggregate> styles = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    /**
+     * The part of a beer the statistics depend on.
+     */
+    private record Entry(String style, int quantityOnHand, BigDecimal price, int version) {
+
+        static Entry of(Beer beer) {
+            return new Entry(
+                    Objects.requireNonNullElse(beer.beerStyle(), NO_STYLE),
+                    Objects.requireNonNullElse(beer.quantityOnHand(), 0),
+                    beer.price(),
+                    Objects.requireNonNullElse(beer.version(), 0)
+            );
+        }
+    }
+
+    /**
+     * Constructor for BeerStatistics.
+     *
+     * @param beerRepository The repository the aggregates are built from.
+     */
+    public BeerStatistics(BeerRepository beerRepository) {
+        this.beerRepository = beerRepository;
+    }
+
+    /**
+     * Builds the aggregates from the beer table.
+     * Runs before the application reports itself ready to accept traffic. Writes made while it runs are
+     * merged by version and deletes by tombstone, so they are neither lost nor counted twice.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        var start = System.nanoTime();
+        beerRepository.findAll()
+                .doOnNext(this::beerSaved)
+                .blockLast();
+        loaded = true;
+        log.info("Built statistics of {} beers in {} styles in {} ms", entries.size(), styles.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Tells whether the aggregates have been built.
+     *
+     * @return true once {@link #load()} completed.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the statistics of every style that has at least one beer.
+     *
+     * @return The statistics ordered by style, the beers without a style first.
+     */
+    public List<BeerStyleStatsDTO> stats() {
+        return styles.entrySet().stream()
+                .map(style -> style.getValue().toDTO(NO_STYLE.equals(style.getKey()) ? null : style.getKey()))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(BeerStyleStatsDTO::beerStyle, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    @Override
+    public void beerSaved(Beer beer) {
+        var next = Entry.of(beer);
+        entries.compute(beer.id(), (_, previous) -> {
+            if (previous != null && previous.version() >= next.version()) {
+                return previous;
+            }
+            if (previous != null) {
+                aggregate(previous.style()).remove(previous);
+            }
+            aggregate(next.style()).add(next);
+            return next;
+        });
+    }
+
+    @Override
+    public void beerDeleted(Integer id) {
+        entries.compute(id, (_, previous) -> {
+            if (previous != null && previous != DELETED) {
+                aggregate(previous.style()).remove(previous);
+            }
+            return DELETED;
+        });
+    }
+
+    private StyleAggregate aggregate(String style) {
+        return styles.computeIfAbsent(style, _ -> new StyleAggregate());
+    }
+
+    /**
+     * The running totals of one style. Guarded by its own monitor, so writes to different styles do not contend.
+     */
+    private static final class StyleAggregate {
+
+        private long count;
+        private long totalQuantityOnHand;
+        private long pricedCount;
+        private BigDecimal totalPrice = BigDecimal.ZERO;
+        private final TreeMap<BigDecimal, Integer> prices = new TreeMap<>();
+
+        synchronized void add(Entry entry) {
+            count++;
+            totalQuantityOnHand += entry.quantityOnHand();
+            if (entry.price() != null) {
+                pricedCount++;
+                totalPrice = totalPrice.add(entry.price());
+                prices.merge(entry.price(), 1, Integer::sum);
+            }
+        }
+
+        synchronized void remove(Entry entry) {
+            count--;
+            totalQuantityOnHand -= entry.quantityOnHand();
+            if (entry.price() != null) {
+                pricedCount--;
+                totalPrice = totalPrice.subtract(entry.price());
+                prices.computeIfPresent(entry.price(), (_, n) -> n == 1 ? null : n - 1);
+            }
+        }
+
+        synchronized BeerStyleStatsDTO toDTO(String style) {
+            if (count == 0) {
+                return null;
+            }
+            return new BeerStyleStatsDTO(
+                    style,
+                    count,
+                    totalQuantityOnHand,
+                    prices.isEmpty() ? null : prices.firstKey(),
+                    pricedCount == 0 ? null : totalPrice.divide(BigDecimal.valueOf(pricedCount), 2, RoundingMode.HALF_UP),
+                    prices.isEmpty() ? null : prices.lastKey()
+            );
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.springpracticereactive.services.impl;
+
+import com.example.springpracticereactive.domain.Customer;
+import com.example.springpracticereactive.model.CustomerNameDTO;
+import com.example.springpracticereactive.repositories.CustomerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * CustomerNameIndex keeps every customer name in a sorted in-memory map, answering prefix lookups for the
+ * autocomplete in O(log n + limit) without touching the database.
+ * <p>
+ * Names are keyed by their lower-cased form followed by the customer id, so equal names of different customers
+ * stay distinct and are ordered by id. A prefix lookup seeks to the first key at or after the prefix and reads
+ * keys until one no longer starts with it. The map is a {@link ConcurrentSkipListMap}, so lookups never lock
+ * and writes only contend when they touch neighbouring keys.
+ * <p>
+ * The index is built from the table once the application is ready, and the customer service passes it the new
+ * state of every customer it writes. A customer carrying an older version than the one already indexed is ignored,
+ * and a deleted customer leaves a tombstone outranking every version, so a save reaching the index after the delete,
+ * e.g. from a {@link #load()} scan that read the row before it was deleted, does not bring it back.
+ */
+@Component
+public class CustomerNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerNameIndex.class);
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private static final Entry DELETED = new Entry(null, Integer.MAX_VALUE);
+
+    private final CustomerRepository customerRepository;
+    private final ConcurrentSkipListMap<String, CustomerNameDTO> byName = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Entry> byId = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    /**
+     * The key a customer is indexed under and the version it was indexed at.
+     */
+    private record Entry(String key, int version) {
+    }
+
+    /**
+     * Constructor for CustomerNameIndex.
+     *
+     * @param customerRepository The repository the index is built from.
+     */
+    public CustomerNameIndex(CustomerRepository customerRepository) {
+        this.customerRepository = customerRepository;
+    }
+
+    /**
+     * Builds the index from the customer table.
+     * Runs before the application reports itself ready to accept traffic; writes made while it runs are
+     * merged by version.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        var start = System.nanoTime();
+        customerRepository.findAll()
+                .doOnNext(this::customerSaved)
+                .blockLast();
+        loaded = true;
+        log.info("Indexed {} customer names in {} ms", byId.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Tells whether the index has been built.
+     *
+     * @return true once {@link #load()} completed.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Finds the customers whose name starts with a prefix, ignoring case.
+     *
+     * @param prefix The start of the name.
+     * @param limit  The maximum number of customers to return.
+     * @return The matching customers ordered by name, then id.
+     */
+    public List<CustomerNameDTO> complete(String prefix, int limit) {
+        var from = normalize(prefix);
+        var results = new ArrayList<CustomerNameDTO>(Math.min(limit, 64));
+        for (var entry : byName.tailMap(from).entrySet()) {
+            if (results.size() == limit || !entry.getKey().startsWith(from)) {
+                break;
+            }
+            results.add(entry.getValue());
+        }
+        return results;
+    }
+
+    /**
+     * Indexes the new state of a created or changed customer.
+     *
+     * @param customer The customer, including its id and version.
+     */
+    public void customerSaved(Customer customer) {
+        var version = Objects.requireNonNullElse(customer.version(), 0);
+        byId.compute(customer.id(), (_, previous) -> {
+            if (previous != null && previous.version() >= version) {
+                return previous;
+            }
+            if (previous != null) {
+                byName.remove(previous.key());
+            }
+            var key = key(customer);
+            byName.put(key, new CustomerNameDTO(customer.id(), customer.customerName()));
+            return new Entry(key, version);
+        });
+    }
+
+    /**
+     * Removes a deleted customer.
+     *
+     * @param id The id of the customer.
+     */
+    public void customerDeleted(Integer id) {
+        byId.compute(id, (_, previous) -> {
+            if (previous != null && previous != DELETED) {
+                byName.remove(previous.key());
+            }
+            // Ids are never reused, so the tombstone is kept for good.
+            return DELETED;
+        });
+    }
+
+    /**
+     * Builds the key of a customer: the normalized name, a separator sorting before any character, and the id
+     * as two chars, which compare like the unsigned int they encode.
+     */
+    private static String key(Customer customer) {
+        var id = customer.id();
+        return normalize(Objects.requireNonNullElse(customer.customerName(), ""))
+                + KEY_SEPARATOR + (char) (id >>> 16) + (char) (id & 0xFFFF);
+    }
+
+    private static String normalize(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+}
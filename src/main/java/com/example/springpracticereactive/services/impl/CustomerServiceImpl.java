@@ -1,14 +1,29 @@
 package com.example.springpracticereactive.services.impl;
 
+import com.example.springpracticereactive.config.CacheConfig;
 import com.example.springpracticereactive.domain.Customer;
 import com.example.springpracticereactive.mappers.CustomerMapper;
+import com.example.springpracticereactive.metrics.CallMetrics;
 import com.example.springpracticereactive.model.CustomerDTO;
+import com.example.springpracticereactive.model.CustomerNameDTO;
+import com.example.springpracticereactive.model.ImportProgressDTO;
 import com.example.springpracticereactive.repositories.CustomerRepository;
 import com.example.springpracticereactive.services.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Implementation of the CustomerService interface.
  * Provides reactive methods for managing customers.
@@ -16,18 +31,42 @@ import reactor.core.publisher.Mono;
 @Service
 public class CustomerServiceImpl implements CustomerService {
 
+    private static final Logger log = LoggerFactory.getLogger(CustomerServiceImpl.class);
+
+    /**
+     * Length of the customer_name column.
+     */
+    private static final int MAX_NAME_LENGTH = 255;
+
     private final CustomerRepository customerRepository;
     private final CustomerMapper customerMapper;
+    private final Validator validator;
+    private final CallMetrics metrics;
+    private final CustomerNameIndex customerNameIndex;
+    private final SingleFlight<Integer, CustomerDTO> customerLookups;
+    private final int importBatchSize;
 
     /**
      * Constructor for CustomerServiceImpl.
      *
      * @param customerRepository the repository for customer data
      * @param customerMapper     the mapper for converting between Customer and CustomerDTO
+     * @param validator          the Bean Validation validator used for imported rows
+     * @param metrics            the timers recording the service and repository calls
+     * @param customerNameIndex  the in-memory name index for the autocomplete, updated on every write
+     * @param meterRegistry      the registry the lookup coalescing metrics are published to
+     * @param importBatchSize    the number of rows written per multi-row INSERT during imports
      */
-    public CustomerServiceImpl(CustomerRepository customerRepository, CustomerMapper customerMapper) {
+    public CustomerServiceImpl(CustomerRepository customerRepository, CustomerMapper customerMapper, Validator validator,
+                               CallMetrics metrics, CustomerNameIndex customerNameIndex, MeterRegistry meterRegistry,
+                               @Value("${customer.import.batch-size:1000}") int importBatchSize) {
         this.customerRepository = customerRepository;
         this.customerMapper = customerMapper;
+        this.validator = validator;
+        this.metrics = metrics;
+        this.customerNameIndex = customerNameIndex;
+        this.customerLookups = new SingleFlight<>("CustomerService.getCustomerById", meterRegistry);
+        this.importBatchSize = importBatchSize;
     }
 
     /**
@@ -37,20 +76,53 @@ public class CustomerServiceImpl implements CustomerService {
      */
     @Override
     public Flux<CustomerDTO> listCustomers() {
-        return customerRepository.findAll()
-                .map(customerMapper::customerToCustomerDTO);
+        return metrics.service("CustomerService.listCustomers",
+                metrics.repository("CustomerRepository.findAll", customerRepository.findAll())
+                        .map(customerMapper::customerToCustomerDTO));
+    }
+
+    /**
+     * Lists one page of customers using keyset pagination on the id.
+     *
+     * @param after the id of the last customer of the previous page, or 0 for the first page
+     * @param limit the maximum number of customers to return
+     * @return a Flux of at most {@code limit} CustomerDTO objects ordered by id
+     */
+    @Override
+    public Flux<CustomerDTO> listCustomers(Integer after, int limit) {
+        return metrics.service("CustomerService.listCustomersPage",
+                metrics.repository("CustomerRepository.findPageAfter", customerRepository.findPageAfter(after, limit))
+                        .map(customerMapper::customerToCustomerDTO));
     }
 
     /**
      * Retrieves a customer by their ID.
+     * Results are cached by id in the {@link CacheConfig#CUSTOMER_CACHE} cache, which every write of the customer evicts.
+     * Concurrent lookups of the same id share one query, also when caching is disabled.
      *
      * @param id the ID of the customer
      * @return a Mono of CustomerDTO if found, otherwise an empty Mono
      */
     @Override
+    @Cacheable(cacheNames = CacheConfig.CUSTOMER_CACHE, key = "#id", sync = true)
     public Mono<CustomerDTO> getCustomerById(Integer id) {
-        return customerRepository.findById(id)
-                .map(customerMapper::customerToCustomerDTO);
+        return metrics.service("CustomerService.getCustomerById", customerLookups.execute(id, () ->
+                metrics.repository("CustomerRepository.findById", customerRepository.findById(id))
+                        .map(customerMapper::customerToCustomerDTO)));
+    }
+
+    /**
+     * Looks up customers by name prefix in the in-memory name index, without querying the database.
+     *
+     * @param prefix the start of the name
+     * @param limit  the maximum number of customers to return
+     * @return a Flux of the matching customers, or an IllegalStateException while the index is being built
+     */
+    @Override
+    public Flux<CustomerNameDTO> autocompleteCustomers(String prefix, int limit) {
+        return metrics.service("CustomerService.autocompleteCustomers", Flux.defer(() -> customerNameIndex.isLoaded()
+                ? Flux.fromIterable(customerNameIndex.complete(prefix, limit))
+                : Flux.error(new IllegalStateException("Customer name index is still being built"))));
     }
 
     /**
@@ -61,51 +133,122 @@ public class CustomerServiceImpl implements CustomerService {
      */
     @Override
     public Mono<CustomerDTO> saveNewCustomer(CustomerDTO customerDTO) {
-        return customerRepository.save(customerMapper.customerDTOToCustomer(customerDTO))
-                .map(customerMapper::customerToCustomerDTO);
+        return metrics.service("CustomerService.saveNewCustomer", Mono.defer(() ->
+                metrics.repository("CustomerRepository.save",
+                                customerRepository.save(customerMapper.customerDTOToCustomer(customerDTO)))
+                        .doOnNext(this::notifySaved)
+                        .map(customerMapper::customerToCustomerDTO)));
+    }
+
+    /**
+     * Imports a stream of new customers.
+     * Rows are validated one by one and the valid ones are written in batches of {@code customer.import.batch-size}.
+     * Batches are written one at a time and only one batch is requested ahead, so memory use is bounded by
+     * the batch size no matter how large the input is.
+     *
+     * @param customerDTOs the data transfer objects of the customers to import
+     * @return a Flux of ImportProgressDTO, one per batch written and a final one when the input is exhausted
+     */
+    @Override
+    public Flux<ImportProgressDTO> importCustomers(Flux<CustomerDTO> customerDTOs) {
+        return metrics.service("CustomerService.importCustomers", Flux.defer(() -> {
+            var rowsRead = new AtomicLong();
+            var rowsImported = new AtomicLong();
+            var rowsRejected = new AtomicLong();
+            var startNanos = System.nanoTime();
+
+            return customerDTOs
+                    .doOnNext(_ -> rowsRead.incrementAndGet())
+                    .filter(customerDTO -> {
+                        var valid = validator.validate(customerDTO).isEmpty()
+                                && customerDTO.customerName().length() <= MAX_NAME_LENGTH;
+                        if (!valid) {
+                            rowsRejected.incrementAndGet();
+                        }
+                        return valid;
+                    })
+                    .map(customerMapper::customerDTOToCustomer)
+                    .buffer(importBatchSize)
+                    .concatMap(batch -> metrics.repository("CustomerRepository.insertAll",
+                                    customerRepository.insertAll(batch))
+                            .collectList()
+                            .map(ids -> {
+                                for (int i = 0; i < ids.size(); i++) {
+                                    // insertAll writes version 0 and does not read the rows back.
+                                    notifySaved(
+                                            new Customer(ids.get(i), batch.get(i).customerName(), 0, null, null));
+                                }
+                                return (long) ids.size();
+                            }), 1)
+                    .map(inserted -> {
+                        var progress = new ImportProgressDTO(rowsRead.get(), rowsImported.addAndGet(inserted),
+                                rowsRejected.get(), false);
+                        log.debug("Customer import progress: {}", progress);
+                        return progress;
+                    })
+                    .concatWith(Mono.fromSupplier(() -> {
+                        var progress = new ImportProgressDTO(rowsRead.get(), rowsImported.get(), rowsRejected.get(), true);
+                        log.info("Customer import complete in {} ms: {}",
+                                Duration.ofNanos(System.nanoTime() - startNanos).toMillis(), progress);
+                        return progress;
+                    }));
+        }));
     }
 
     /**
      * Updates an existing customer.
      *
-     * @param id          the ID of the customer to update
-     * @param customerDTO the data transfer object containing updated customer details
+     * @param id              the ID of the customer to update
+     * @param customerDTO     the data transfer object containing updated customer details
+     * @param expectedVersion the version the customer must still have, or null to update unconditionally
      * @return a Mono of the updated CustomerDTO
      */
     @Override
-    public Mono<CustomerDTO> updateCustomer(Integer id, CustomerDTO customerDTO) {
-        return customerRepository.findById(id).flatMap(
-                foundCustomer -> {
-                    return customerRepository.save(
-                            new Customer(
-                                    foundCustomer.id(),
-                                    customerDTO.customerName(),
-                                    foundCustomer.createdDate(),
-                                    foundCustomer.lastModifiedDate()
-                            )
-                    );
-                }).map(customerMapper::customerToCustomerDTO);
+    @CacheEvict(cacheNames = CacheConfig.CUSTOMER_CACHE, key = "#id")
+    public Mono<CustomerDTO> updateCustomer(Integer id, CustomerDTO customerDTO, Integer expectedVersion) {
+        return metrics.service("CustomerService.updateCustomer", Mono.defer(() ->
+                metrics.repository("CustomerRepository.updateById",
+                                customerRepository.updateById(id, customerMapper.customerDTOToCustomer(customerDTO), expectedVersion))
+                        .switchIfEmpty(versionConflict(id, expectedVersion))
+                        .doOnNext(this::notifySaved)
+                        .map(customerMapper::customerToCustomerDTO)));
     }
 
     /**
      * Partially updates a customer.
      *
-     * @param id          the ID of the customer to patch
-     * @param customerDTO the data transfer object containing partial updates
+     * @param id              the ID of the customer to patch
+     * @param customerDTO     the data transfer object containing partial updates
+     * @param expectedVersion the version the customer must still have, or null to patch unconditionally
      * @return a Mono of the patched CustomerDTO
      */
     @Override
-    public Mono<CustomerDTO> patchCustomer(Integer id, CustomerDTO customerDTO) {
-        return customerRepository.findById(id)
-                .flatMap(foundCustomer -> {
-                    return customerRepository.save(new Customer(
-                            foundCustomer.id(),
-                            customerDTO.customerName() != null ? customerDTO.customerName() : foundCustomer.customerName(),
-                            foundCustomer.createdDate(),
-                            foundCustomer.lastModifiedDate())
-                    );
-                })
-                .map(customerMapper::customerToCustomerDTO);
+    @CacheEvict(cacheNames = CacheConfig.CUSTOMER_CACHE, key = "#id")
+    public Mono<CustomerDTO> patchCustomer(Integer id, CustomerDTO customerDTO, Integer expectedVersion) {
+        return metrics.service("CustomerService.patchCustomer", Mono.defer(() ->
+                metrics.repository("CustomerRepository.patchById",
+                                customerRepository.patchById(id, customerMapper.customerDTOToCustomer(customerDTO), expectedVersion))
+                        .switchIfEmpty(versionConflict(id, expectedVersion))
+                        .doOnNext(this::notifySaved)
+                        .map(customerMapper::customerToCustomerDTO)));
+    }
+
+    /**
+     * Explains a conditional update that matched no row.
+     * Only called on that failure path: if the customer still exists its version moved on, otherwise it is missing.
+     *
+     * @param id              the ID of the customer that was not updated
+     * @param expectedVersion the version the update was conditional on, or null
+     * @return an OptimisticLockingFailureException if the customer exists, otherwise an empty Mono
+     */
+    private Mono<Customer> versionConflict(Integer id, Integer expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.empty();
+        }
+        return metrics.repository("CustomerRepository.existsById", customerRepository.existsById(id))
+                .filter(exists -> exists)
+                .flatMap(_ -> Mono.<Customer>error(new OptimisticLockingFailureException(
+                        "Customer " + id + " is no longer at version " + expectedVersion)));
     }
 
     /**
@@ -115,7 +258,23 @@ public class CustomerServiceImpl implements CustomerService {
      * @return a Mono signaling completion
      */
     @Override
+    @CacheEvict(cacheNames = CacheConfig.CUSTOMER_CACHE, key = "#id")
     public Mono<Void> deleteCustomerById(Integer id) {
-        return customerRepository.deleteById(id);
+        return metrics.serviceCompletion("CustomerService.deleteCustomerById",
+                metrics.repositoryCompletion("CustomerRepository.deleteById", customerRepository.deleteById(id))
+                        .doOnSuccess(_ -> {
+                            customerLookups.forget(id);
+                            customerNameIndex.customerDeleted(id);
+                        }));
+    }
+
+    /**
+     * Passes the new state of a customer to the name index, and detaches any lookup of it still in flight.
+     *
+     * @param customer the customer that was created or changed
+     */
+    private void notifySaved(Customer customer) {
+        customerLookups.forget(customer.id());
+        customerNameIndex.customerSaved(customer);
     }
 }
\ No newline at end of file
@@ -0,0 +1,287 @@
+package com.example.springpracticereactive.services.impl;
+
+import com.example.springpracticereactive.config.CacheConfig;
+import com.example.springpracticereactive.repositories.BeerRepository;
+import com.example.springpracticereactive.repositories.BeerRepositoryCustom.QuantityDelta;
+import com.example.springpracticereactive.services.BeerWriteListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * InventoryWriteBehind coalesces inventory adjustments in memory and writes them to the beer table in batches,
+ * so a hot beer receiving thousands of adjustments per second costs one row update per flush instead of one per sale.
+ * <p>
+ * Every beer has two {@link LongAdder}s summing its pending restocks and sales. Adders spread concurrent additions
+ * over striped cells, so adjusting the same beer from many threads neither locks nor retries in a CAS loop.
+ * A flush takes the sum of every adder with {@link LongAdder#sumThenReset()}, which moves each cell to zero
+ * atomically, so an adjustment made during a flush lands in either this flush or the next.
+ * Adders found empty by a flush belong to a beer that was not adjusted since the previous one and are removed,
+ * so the map and the cost of a flush stay proportional to the beers adjusted recently rather than ever.
+ * <p>
+ * Flushes run every {@code beer.inventory.write-behind.flush-interval}, and early once
+ * {@code beer.inventory.write-behind.flush-threshold} adjustments are pending; they are serialized on one
+ * subscriber and a final flush runs on shutdown. Each batch is a single UPDATE that adds the restocks of the window
+ * first and then removes its sales up to the units available, i.e. the stock plus those restocks. Sales beyond that,
+ * although already accepted, are not applied: the beer is left without stock and counted as sold out.
+ * Deltas of deleted beers are dropped and counted.
+ * A batch that fails is put back to be retried by the next flush.
+ * <p>
+ * Publishes the {@code inventory.write-behind.flush} timer, the {@code inventory.write-behind.pending} gauge and
+ * the {@code inventory.write-behind.sold-out} and {@code inventory.write-behind.rejected} counters.
+ * Enabled with {@code beer.inventory.write-behind.enabled}.
+ */
+@Component
+@ConditionalOnProperty(name = "beer.inventory.write-behind.enabled", havingValue = "true")
+public class InventoryWriteBehind implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryWriteBehind.class);
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final BeerRepository beerRepository;
+    private final CacheManager cacheManager;
+    private final List<BeerWriteListener> writeListeners;
+    private final Duration flushInterval;
+    private final long flushThreshold;
+    private final int batchSize;
+    private final Map<Integer, PendingDelta> pendingDeltas = new ConcurrentHashMap<>();
+    private final AtomicLong pendingAdjustments = new AtomicLong();
+    private final Sinks.Many<Boolean> thresholdReached = Sinks.many().unicast().onBackpressureBuffer();
+    private final Sinks.One<Boolean> stopRequested = Sinks.one();
+    private final Timer flushTimer;
+    private final Counter soldOut;
+    private final Counter rejected;
+    private Mono<Void> flushLoop;
+
+    /**
+     * The pending restocks and sales of one beer, both counted as positive numbers of units.
+     */
+    private static final class PendingDelta {
+
+        private final LongAdder restocked = new LongAdder();
+        private final LongAdder sold = new LongAdder();
+
+        private void add(long restocks, long sales) {
+            if (restocks != 0) {
+                restocked.add(restocks);
+            }
+            if (sales != 0) {
+                sold.add(sales);
+            }
+        }
+
+        /**
+         * Takes the pending units out of the adders.
+         *
+         * @return The units taken, or null if there were none.
+         */
+        private QuantityDelta drain() {
+            var restocks = restocked.sumThenReset();
+            var sales = sold.sumThenReset();
+            if (restocks == 0 && sales == 0) {
+                return null;
+            }
+            return new QuantityDelta(Math.toIntExact(restocks), Math.toIntExact(sales));
+        }
+    }
+
+    /**
+     * Constructor for InventoryWriteBehind.
+     *
+     * @param beerRepository The repository the deltas are written with.
+     * @param cacheManager   The cache manager whose beer caches are evicted after a flush.
+     * @param writeListeners The listeners notified of the updated beers.
+     * @param meterRegistry  The registry the flush metrics are published to.
+     * @param flushInterval  The maximum time an adjustment waits before being written.
+     * @param flushThreshold The number of pending adjustments that triggers a flush before the interval ends.
+     * @param batchSize      The maximum number of beers updated per UPDATE statement.
+     */
+    public InventoryWriteBehind(BeerRepository beerRepository, CacheManager cacheManager,
+                                List<BeerWriteListener> writeListeners, MeterRegistry meterRegistry,
+                                @Value("${beer.inventory.write-behind.flush-interval:100ms}") Duration flushInterval,
+                                @Value("${beer.inventory.write-behind.flush-threshold:10000}") long flushThreshold,
+                                @Value("${beer.inventory.write-behind.batch-size:500}") int batchSize) {
+        this.beerRepository = beerRepository;
+        this.cacheManager = cacheManager;
+        this.writeListeners = writeListeners;
+        this.flushInterval = flushInterval;
+        this.flushThreshold = flushThreshold;
+        this.batchSize = batchSize;
+
+        this.flushTimer = Timer.builder("inventory.write-behind.flush")
+                .description("Time taken to write the pending inventory deltas")
+                .register(meterRegistry);
+        this.soldOut = Counter.builder("inventory.write-behind.sold-out")
+                .description("Beers left without stock by a flush; sales beyond the stock are not applied")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("inventory.write-behind.rejected")
+                .description("Coalesced inventory deltas dropped because the beer is gone")
+                .register(meterRegistry);
+        Gauge.builder("inventory.write-behind.pending", pendingAdjustments, AtomicLong::get)
+                .description("Inventory adjustments accepted but not yet written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the periodic and threshold-triggered flushes.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        flushLoop = Flux.merge(Flux.interval(flushInterval, flushInterval), thresholdReached.asFlux())
+                // Stopping ends the triggers only; concatMap still lets the running flush complete.
+                .takeUntilOther(stopRequested.asMono())
+                // A trigger arriving while a flush runs is redundant, the running flush already picks its deltas up.
+                .onBackpressureDrop()
+                .concatMap(_ -> flush(), 1)
+                .then()
+                .cache();
+        flushLoop.subscribe();
+    }
+
+    /**
+     * Stops the scheduled flushes, waits for a running one to complete and writes whatever is still pending.
+     * The running flush is not cancelled: it already took its deltas out of the adders, and cancelling it
+     * would lose them.
+     */
+    @Override
+    public void destroy() {
+        if (flushLoop != null) {
+            stopRequested.tryEmitValue(Boolean.TRUE);
+            flushLoop.block(SHUTDOWN_TIMEOUT);
+        }
+        var written = flush().block(SHUTDOWN_TIMEOUT);
+        log.info("Flushed {} pending inventory deltas on shutdown", written);
+    }
+
+    /**
+     * Adds a delta to the pending quantity change of a beer. Never blocks.
+     *
+     * @param beerId The id of the beer.
+     * @param delta  The number of units to add, negative to remove units.
+     */
+    public void add(Integer beerId, int delta) {
+        accumulate(beerId, Math.max(delta, 0), Math.max(-(long) delta, 0));
+        if (pendingAdjustments.incrementAndGet() == flushThreshold) {
+            // A failed emission means another thread is emitting a trigger right now, which is enough.
+            thresholdReached.tryEmitNext(Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Adds restocks and sales to the adders of a beer, moving them to new adders if a flush removed those meanwhile.
+     *
+     * @param beerId   The id of the beer.
+     * @param restocks The number of units added.
+     * @param sales    The number of units removed.
+     */
+    private void accumulate(Integer beerId, long restocks, long sales) {
+        var pending = pendingDeltas.computeIfAbsent(beerId, _ -> new PendingDelta());
+        pending.add(restocks, sales);
+        // A flush removing the adders drains them once more afterwards; whatever that drain missed is moved here.
+        if (pendingDeltas.get(beerId) != pending) {
+            var missed = pending.drain();
+            if (missed != null) {
+                accumulate(beerId, missed.restocked(), missed.sold());
+            }
+        }
+    }
+
+    /**
+     * Writes the pending deltas.
+     *
+     * @return A Mono emitting the number of beers whose stock was updated.
+     */
+    public Mono<Long> flush() {
+        return Mono.defer(() -> {
+            pendingAdjustments.set(0);
+            var deltas = new LinkedHashMap<Integer, QuantityDelta>();
+            pendingDeltas.forEach((beerId, pending) -> {
+                var delta = pending.drain();
+                if (delta == null && pendingDeltas.remove(beerId, pending)) {
+                    // Picks up an adjustment that reached the adders between the drain and the removal.
+                    delta = pending.drain();
+                }
+                if (delta != null) {
+                    deltas.put(beerId, delta);
+                }
+            });
+            if (deltas.isEmpty()) {
+                return Mono.just(0L);
+            }
+
+            var sample = Timer.start();
+            return Flux.fromIterable(deltas.entrySet())
+                    .buffer(batchSize)
+                    .concatMap(this::write)
+                    .reduce(0L, Long::sum)
+                    .doOnTerminate(() -> sample.stop(flushTimer));
+        });
+    }
+
+    /**
+     * Writes one batch of deltas, evicts the cached copies of the updated beers and notifies the listeners.
+     *
+     * @param batch The deltas by beer id.
+     * @return A Mono emitting the number of beers updated; a failed batch emits 0 and is re-queued.
+     */
+    private Mono<Long> write(List<Map.Entry<Integer, QuantityDelta>> batch) {
+        var deltas = new LinkedHashMap<Integer, QuantityDelta>();
+        batch.forEach(entry -> deltas.put(entry.getKey(), entry.getValue()));
+
+        return beerRepository.applyQuantityDeltas(deltas)
+                .collectList()
+                .map(updated -> {
+                    var beerCache = cacheManager.getCache(CacheConfig.BEER_CACHE);
+                    var upcCache = cacheManager.getCache(CacheConfig.BEER_UPC_CACHE);
+                    var skipped = new HashSet<>(deltas.keySet());
+                    updated.forEach(beer -> {
+                        if (beerCache != null) {
+                            beerCache.evict(beer.id());
+                        }
+                        // Only the quantity changed, so the beer is still cached under the UPC it has now.
+                        if (upcCache != null && beer.upc() != null) {
+                            upcCache.evict(beer.upc());
+                        }
+                        writeListeners.forEach(listener -> listener.beerSaved(beer));
+                        skipped.remove(beer.id());
+                        if (deltas.get(beer.id()).sold() > 0 && Integer.valueOf(0).equals(beer.quantityOnHand())) {
+                            soldOut.increment();
+                            log.debug("Beer {} is sold out, pending sales beyond its stock were not applied", beer.id());
+                        }
+                    });
+
+                    if (!skipped.isEmpty()) {
+                        rejected.increment(skipped.size());
+                        log.warn("Dropped inventory deltas of beers {}: beer no longer exists", skipped);
+                    }
+                    return (long) updated.size();
+                })
+                .onErrorResume(e -> {
+                    log.warn("Could not write {} inventory deltas, retrying with the next flush", deltas.size(), e);
+                    deltas.forEach((beerId, delta) -> accumulate(beerId, delta.restocked(), delta.sold()));
+                    return Mono.just(0L);
+                });
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.springpracticereactive.services.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * SingleFlight coalesces concurrent lookups of the same key into one call.
+ * <p>
+ * The first subscriber for a key starts the call and registers it as in flight; subscribers arriving while it runs
+ * join it and receive its result (value, empty or error) instead of issuing their own. The entry is removed as soon
+ * as the call terminates, so nothing is cached beyond the lifetime of the call: the next lookup starts a new one.
+ * A joining subscriber that cancels does not cancel the shared call, which still completes for the others.
+ * <p>
+ * Writers call {@link #forget(Object)} once a write of a key completed, so lookups made after the write never join
+ * a call that started before it.
+ * <p>
+ * The {@value #CALLS} counter records every lookup tagged with the operation and the outcome: {@code executed} for
+ * lookups that ran the call and {@code coalesced} for lookups that joined one, i.e. the calls saved.
+ *
+ * @param <K> The key type.
+ * @param <V> The result type.
+ */
+final class SingleFlight<K, V> {
+
+    /**
+     * Name of the counter recording the lookups.
+     */
+    static final String CALLS = "app.single-flight.calls";
+
+    private final Map<K, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    /**
+     * One call in flight, identified by its instance so that only the flight that ends removes its own entry.
+     */
+    private final class Flight {
+
+        private final Mono<V> result;
+
+        private Flight(K key, Supplier<Mono<V>> call) {
+            this.result = Mono.defer(call)
+                    .doFinally(_ -> inFlight.remove(key, this))
+                    .cache();
+        }
+    }
+
+    /**
+     * Constructor for SingleFlight.
+     *
+     * @param operation     The name of the coalesced operation, e.g. {@code BeerService.getBeerById}.
+     * @param meterRegistry The registry the counters and the in-flight gauge are registered in.
+     */
+    SingleFlight(String operation, MeterRegistry meterRegistry) {
+        this.executed = counter(operation, "executed", meterRegistry);
+        this.coalesced = counter(operation, "coalesced", meterRegistry);
+        Gauge.builder("app.single-flight.in-flight", inFlight, Map::size)
+                .description("Coalesced calls currently running")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a call for a key, or joins the call already running for it.
+     *
+     * @param key  The key of the lookup.
+     * @param call Supplies the call; only invoked when no call for the key is in flight.
+     * @return A Mono with the result of the call, resolved on every subscription.
+     */
+    Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            var flight = new Flight(key, call);
+            var running = inFlight.putIfAbsent(key, flight);
+            if (running != null) {
+                coalesced.increment();
+                return running.result;
+            }
+            executed.increment();
+            return flight.result;
+        });
+    }
+
+    /**
+     * Detaches the call in flight for a key, if any, so later lookups start a new one.
+     * Subscribers that already joined it still receive its result.
+     *
+     * @param key The key that was written.
+     */
+    void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * Returns the number of calls currently in flight.
+     *
+     * @return The number of keys with a running call.
+     */
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private static Counter counter(String operation, String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder(CALLS)
+                .description("Lookups that ran their call or joined one already in flight")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
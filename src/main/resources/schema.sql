@@ -5,15 +5,24 @@ CREATE TABLE if NOT EXISTS beer
     beer_style varchar(255),
     upc        varchar(25),
     quantity_on_hand integer,
-    price decimal,
+    price decimal(19, 2),
+    version integer,
     created_date timestamp,
     last_modified_date timestamp
 );
 
+-- Supporting indexes for the filtered beer listing; the trailing id keeps keyset paging within a style index-ordered.
+CREATE INDEX IF NOT EXISTS idx_beer_style_id ON beer (beer_style, id);
+CREATE INDEX IF NOT EXISTS idx_beer_name ON beer (beer_name);
+CREATE INDEX IF NOT EXISTS idx_beer_price ON beer (price);
+-- Point-of-sale lookups by barcode; also rejects a second beer with the same upc.
+CREATE UNIQUE INDEX IF NOT EXISTS idx_beer_upc ON beer (upc);
+
 create table if not exists customer
 (
     id                 integer not null primary key auto_increment,
     customer_name      varchar(255),
+    version            integer,
     created_date       timestamp,
     last_modified_date timestamp
 );
\ No newline at end of file
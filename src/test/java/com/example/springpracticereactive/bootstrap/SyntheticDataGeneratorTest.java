@@ -0,0 +1,76 @@
+package com.example.springpracticereactive.bootstrap;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for SyntheticDataGenerator.
+ * Only the row generation and batching are exercised, with a stub insert, so no repositories are needed.
+ */
+class SyntheticDataGeneratorTest {
+
+    /**
+     * Verifies the same seed and index always produce the same row, and a different seed a different dataset.
+     */
+    @Test
+    void test_rows_are_deterministic() {
+        var generator = new SyntheticDataGenerator(null, null, 42, 500);
+        var again = new SyntheticDataGenerator(null, null, 42, 500);
+        var other = new SyntheticDataGenerator(null, null, 7, 500);
+
+        assertThat(generator.beer(123)).isEqualTo(again.beer(123));
+        assertThat(generator.customer(123)).isEqualTo(again.customer(123));
+        assertThat(IntStream.range(0, 100).mapToObj(generator::beer).toList())
+                .isNotEqualTo(IntStream.range(0, 100).mapToObj(other::beer).toList());
+    }
+
+    /**
+     * Verifies generated beers pass the Beer constraints and have unique UPCs.
+     */
+    @Test
+    void test_beers_are_valid_and_unique() {
+        var generator = new SyntheticDataGenerator(null, null, 42, 500);
+        var upcs = new HashSet<String>();
+
+        IntStream.range(0, 10_000).mapToObj(generator::beer).forEach(beer -> {
+            assertThat(beer.beerName()).isNotBlank().hasSizeLessThanOrEqualTo(255);
+            assertThat(beer.beerStyle()).isNotBlank();
+            assertThat(beer.upc()).hasSize(12);
+            assertThat(beer.quantityOnHand()).isBetween(0, 999);
+            assertThat(beer.price()).isPositive();
+            assertThat(upcs.add(beer.upc())).isTrue();
+        });
+    }
+
+    /**
+     * Verifies batches are written one at a time and in index order, so the database assigns ids in index order.
+     */
+    @Test
+    void test_batches_are_written_in_order_one_at_a_time() {
+        var generator = new SyntheticDataGenerator(null, null, 42, 100);
+        var written = new ArrayList<Integer>();
+        var inFlight = new AtomicInteger();
+
+        var total = generator.seed("test", 1_050, index -> index, batch -> Mono.fromCallable(() -> {
+                    assertThat(inFlight.incrementAndGet()).isEqualTo(1);
+                    return batch;
+                })
+                .delayElement(Duration.ofMillis(1))
+                .map(rows -> {
+                    written.addAll(rows);
+                    inFlight.decrementAndGet();
+                    return (long) rows.size();
+                })).block(Duration.ofSeconds(10));
+
+        assertThat(total).isEqualTo(1_050);
+        assertThat(written).isEqualTo(IntStream.range(0, 1_050).boxed().toList());
+    }
+}
@@ -1,7 +1,15 @@
 package com.example.springpracticereactive.controllers;
 
+import com.example.springpracticereactive.config.CacheConfig;
+import com.example.springpracticereactive.domain.Beer;
+import com.example.springpracticereactive.model.BeerChangeEventDTO;
 import com.example.springpracticereactive.model.BeerDTO;
+import com.example.springpracticereactive.model.BeerStyleStatsDTO;
+import com.example.springpracticereactive.repositories.BeerRepository;
 import com.example.springpracticereactive.repositories.BeerRepositoryTest;
+import com.example.springpracticereactive.services.BeerWriteListener;
+import com.example.springpracticereactive.services.impl.InventoryWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -9,9 +17,26 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockOAuth2Login;
 
 /**
@@ -26,6 +51,15 @@ class BeerControllerTest {
     @Autowired
     WebTestClient webTestClient;
 
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    List<BeerWriteListener> writeListeners;
+
     /**
      * Test for listing all beers.
      * Verifies the response status, content type, and the size of the returned list.
@@ -114,7 +148,8 @@ class BeerControllerTest {
                 .mutateWith(mockOAuth2Login())
                 .put()
                 .uri(BeerController.BEER_PATH_ID, 1)
-                .body(Mono.just(BeerRepositoryTest.getNewBeer()), BeerDTO.class)
+                // The upc must differ from the beer created in test_create_new_beer, as it is unique.
+                .body(Mono.just(new Beer("Space Dust", "IPA", "2316346", 45, new BigDecimal("3.99"))), BeerDTO.class)
                 .exchange()
                 .expectStatus().isNoContent();
     }
@@ -213,4 +248,740 @@ class BeerControllerTest {
                 .exchange()
                 .expectStatus().isNotFound();
     }
-}
\ No newline at end of file
+
+    /**
+     * Test for paging through beers with a cursor.
+     * Verifies the first page carries a next-page link and that following the cursor returns the rest.
+     */
+    @Order(12)
+    @Test
+    void test_list_beers_paged() {
+        var nextCursor = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(BeerController.BEER_PATH).queryParam("limit", 2).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("link")
+                .expectBody().jsonPath("$.size()").isEqualTo(2)
+                .returnResult()
+                .getResponseHeaders().getFirst("X-Next-Cursor");
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(BeerController.BEER_PATH)
+                        .queryParam("limit", 2)
+                        .queryParam("after", nextCursor)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("link")
+                .expectBody().jsonPath("$.size()").isEqualTo(1);
+    }
+
+    /**
+     * Test for listing beers with a malformed cursor.
+     * Verifies the response status is Bad Request.
+     */
+    @Order(13)
+    @Test
+    void test_list_beers_bad_cursor() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(BeerController.BEER_PATH).queryParam("after", "not-a-cursor").build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    /**
+     * Test for streaming beers as newline-delimited JSON.
+     * Verifies the content type and that every remaining beer arrives as its own element.
+     */
+    @Order(14)
+    @Test
+    void test_list_beers_ndjson() {
+        var result = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(BeerDTO.class);
+
+        StepVerifier.create(result.getResponseBody())
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    /**
+     * Test for creating beers in bulk.
+     * Verifies the valid item is created with a generated id and the invalid item is reported without failing the request.
+     */
+    @Order(15)
+    @Test
+    void test_create_new_beers_batch() {
+        var validBeer = Map.of(
+                "beerName", "Batch Beer",
+                "beerStyle", "IPA",
+                "upc", "900001",
+                "quantityOnHand", "12",
+                "price", new BigDecimal("9.99")
+        );
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerController.BEER_PATH_BATCH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(validBeer, new BeerDTO("")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.size()").isEqualTo(2)
+                .jsonPath("$[0].status").isEqualTo("CREATED")
+                .jsonPath("$[0].id").isNotEmpty()
+                .jsonPath("$[1].index").isEqualTo(1)
+                .jsonPath("$[1].status").isEqualTo("INVALID");
+    }
+
+    /**
+     * Test for cache invalidation on patch.
+     * Verifies a beer read through the cache reflects a patch made after it was cached.
+     */
+    @Order(16)
+    @Test
+    void test_patch_beer_evicts_cache() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH_ID, 2)
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .patch()
+                .uri(BeerController.BEER_PATH_ID, 2)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("beerName", "Cache Check"))
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH_ID, 2)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.beerName").isEqualTo("Cache Check");
+    }
+
+    /**
+     * Test for the cache metrics exposed through actuator.
+     * Verifies the cache.gets metric is published for the beer cache.
+     */
+    @Order(17)
+    @Test
+    void test_beer_cache_metrics() {
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder.path("/actuator/metrics/cache.gets").queryParam("tag", "cache:beers").build())
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    /**
+     * Test for patching a single field.
+     * Verifies only the sent field changes and the other fields keep their stored values.
+     */
+    @Order(18)
+    @Test
+    void test_patch_beer_only_changes_sent_fields() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .patch()
+                .uri(BeerController.BEER_PATH_ID, 3)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("beerName", "Sunshine City", "price", new BigDecimal("16")))
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH_ID, 3)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.beerName").isEqualTo("Sunshine City")
+                .jsonPath("$.beerStyle").isEqualTo("IPA")
+                .jsonPath("$.upc").isEqualTo("129816")
+                .jsonPath("$.quantityOnHand").isEqualTo("94");
+    }
+
+    /**
+     * Test for conditional patches with If-Match.
+     * Verifies a stale ETag and the weak form of the current one are rejected with Precondition Failed,
+     * and that the current ETag is accepted and replaced.
+     */
+    @Order(19)
+    @Test
+    void test_patch_beer_if_match() {
+        var etag = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH_ID, 3)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody(BeerDTO.class)
+                .returnResult()
+                .getResponseHeaders().getETag();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .patch()
+                .uri(BeerController.BEER_PATH_ID, 3)
+                .header(HttpHeaders.IF_MATCH, "\"999\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("beerName", "Stale Write"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .patch()
+                .uri(BeerController.BEER_PATH_ID, 3)
+                .header(HttpHeaders.IF_MATCH, "W/" + etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("beerName", "Weak Write"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        var newEtag = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .patch()
+                .uri(BeerController.BEER_PATH_ID, 3)
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("beerName", "Fresh Write"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult()
+                .getResponseHeaders().getETag();
+
+        assertThat(newEtag).isNotNull().isNotEqualTo(etag);
+    }
+
+    /**
+     * Test for the filtered beer listing.
+     * Verifies the criteria are combined and that LIKE wildcards in the name prefix are matched literally.
+     */
+    @Order(20)
+    @Test
+    void test_list_beers_filtered() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(BeerController.BEER_PATH)
+                        .queryParam("beerStyle", "IPA")
+                        .queryParam("beerName", "Batch")
+                        .queryParam("maxPrice", 20)
+                        .queryParam("minQuantityOnHand", 1)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.size()").isEqualTo(1)
+                .jsonPath("$[0].beerName").isEqualTo("Batch Beer");
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(BeerController.BEER_PATH).queryParam("beerName", "Batch_").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.size()").isEqualTo(0);
+    }
+
+    /**
+     * Test for retrieving a beer by its UPC.
+     * Verifies a known UPC returns the beer and an unknown UPC returns Not Found.
+     */
+    @Order(21)
+    @Test
+    void test_get_beer_by_upc() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH_UPC, "129686")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(2)
+                .jsonPath("$.upc").isEqualTo("129686");
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH_UPC, "000000")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    /**
+     * Test for creating a beer with a UPC that is already taken.
+     * Verifies the unique index is reported as Conflict.
+     */
+    @Order(22)
+    @Test
+    void test_create_new_beer_duplicate_upc() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerController.BEER_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("beerName", "Barcode Clash", "upc", "129686"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Test for the service and repository call timers exposed through actuator.
+     * Verifies the listing calls made by the earlier tests were recorded with their outcome.
+     */
+    @Order(23)
+    @Test
+    void test_beer_call_metrics() {
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder.path("/actuator/metrics/app.service.calls")
+                        .queryParam("tag", "operation:BeerService.listBeersPage")
+                        .queryParam("tag", "outcome:found")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.measurements[?(@.statistic == 'COUNT')].value").isNotEmpty();
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder.path("/actuator/metrics/app.repository.calls")
+                        .queryParam("tag", "operation:BeerRepository.findPageAfter")
+                        .build())
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    /**
+     * Test for the connection pool metrics exposed through actuator.
+     * Verifies the gauges of the pool configured through spring.r2dbc.pool.* are published.
+     */
+    @Order(24)
+    @Test
+    void test_connection_pool_metrics() {
+        webTestClient
+                .get()
+                .uri("/actuator/metrics/r2dbc.pool.max.allocated")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.measurements[0].value").isEqualTo(20.0);
+    }
+
+    /**
+     * Test for adjusting the stock of a beer.
+     * Verifies the delta is applied to the current quantity, that a delta exceeding the stock is rejected
+     * with Conflict without changing it, and that a missing beer returns Not Found.
+     */
+    @Order(25)
+    @Test
+    void test_adjust_inventory() {
+        var before = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH_ID, 3)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BeerDTO.class)
+                .returnResult()
+                .getResponseBody();
+        var quantity = Integer.parseInt(before.quantityOnHand());
+        var upcCache = cacheManager.getCache(CacheConfig.BEER_UPC_CACHE);
+        getBeerByUpc(before.upc());
+        getBeerByUpc("129686");
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerController.BEER_PATH_INVENTORY, 3)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("delta", -4))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + (before.version() + 1) + "\"")
+                .expectBody()
+                .jsonPath("$.beerId").isEqualTo(3)
+                .jsonPath("$.quantityOnHand").isEqualTo(quantity - 4);
+
+        // Only the adjusted beer leaves the UPC cache.
+        assertThat(upcCache.get(before.upc())).isNull();
+        assertThat(upcCache.get("129686")).isNotNull();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerController.BEER_PATH_INVENTORY, 3)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("delta", -quantity))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH_ID, 3)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.quantityOnHand").isEqualTo(String.valueOf(quantity - 4));
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerController.BEER_PATH_INVENTORY, 999)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("delta", 1))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private void getBeerByUpc(String upc) {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH_UPC, upc)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    /**
+     * Test for the write-behind buffer of inventory adjustments.
+     * The buffer is flushed by hand instead of on its schedule. Verifies deltas added concurrently are
+     * coalesced into one update, that the restocks of a window are applied before its sales, that sales beyond the
+     * units available are not applied, and that deltas of a missing beer are dropped without affecting the others.
+     */
+    @Order(26)
+    @Test
+    void test_inventory_write_behind() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var writeBehind = new InventoryWriteBehind(beerRepository, cacheManager, writeListeners, meterRegistry,
+                Duration.ofMinutes(1), 1_000_000, 500);
+        var quantity = beerRepository.findById(3).block().quantityOnHand();
+
+        // 490 additions and 510 removals of one unit each, coalescing into a delta of -20.
+        IntStream.range(0, 1_000).parallel()
+                .forEach(i -> writeBehind.add(3, i % 2 == 0 && i % 100 != 0 ? 1 : -1));
+
+        StepVerifier.create(writeBehind.flush())
+                .expectNext(1L)
+                .verifyComplete();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH_ID, 3)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.quantityOnHand").isEqualTo(String.valueOf(quantity - 20));
+
+        // The restocks of a window are applied before its sales, so sales exceeding the stock alone are applied
+        // in full when the restocks cover them.
+        var stock = quantity - 20;
+        writeBehind.add(3, 100);
+        writeBehind.add(3, -(stock + 60));
+        writeBehind.add(2, 5);
+        writeBehind.add(999_999, 5);
+
+        StepVerifier.create(writeBehind.flush())
+                .expectNext(2L)
+                .verifyComplete();
+
+        assertThat(beerRepository.findById(3).block().quantityOnHand()).isEqualTo(40);
+        assertThat(meterRegistry.get("inventory.write-behind.sold-out").counter().count()).isZero();
+        assertThat(meterRegistry.get("inventory.write-behind.rejected").counter().count()).isEqualTo(1.0);
+
+        // Sales beyond the stock and the restocks are not applied; the beer is left without stock.
+        writeBehind.add(3, 10);
+        writeBehind.add(3, -1_000_000);
+
+        StepVerifier.create(writeBehind.flush())
+                .expectNext(1L)
+                .verifyComplete();
+
+        assertThat(beerRepository.findById(3).block().quantityOnHand()).isZero();
+        assertThat(meterRegistry.get("inventory.write-behind.sold-out").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("inventory.write-behind.flush").timer().count()).isEqualTo(3);
+
+        writeBehind.add(3, 10);
+        StepVerifier.create(writeBehind.flush())
+                .expectNext(1L)
+                .verifyComplete();
+        assertThat(beerRepository.findById(3).block().quantityOnHand()).isEqualTo(10);
+    }
+
+    /**
+     * Test for the per-style statistics.
+     * Verifies the in-memory aggregates, after all the writes of the earlier tests, match a SQL GROUP BY
+     * over the beer table, that creating and deleting a beer are reflected right away, and that a late save
+     * of a deleted beer is ignored.
+     */
+    @Order(27)
+    @Test
+    void test_beer_stats() {
+        assertBeerStatsMatchGroupBy();
+
+        var location = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(BeerController.BEER_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("beerName", "Stats Beer", "beerStyle", "Stats Style", "upc", "900777",
+                        "quantityOnHand", "7", "price", "4.50"))
+                .exchange()
+                .expectStatus().isCreated()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .getLocation();
+
+        assertThat(getBeerStats())
+                .filteredOn(style -> "Stats Style".equals(style.beerStyle()))
+                .singleElement()
+                .satisfies(style -> {
+                    assertThat(style.count()).isEqualTo(1);
+                    assertThat(style.totalQuantityOnHand()).isEqualTo(7);
+                    assertThat(style.avgPrice()).isEqualByComparingTo("4.50");
+                });
+
+        var id = location.getPath().substring(location.getPath().lastIndexOf('/') + 1);
+        var saved = beerRepository.findById(Integer.valueOf(id)).block();
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .delete()
+                .uri(BeerController.BEER_PATH_ID, id)
+                .exchange()
+                .expectStatus().isNoContent();
+
+        assertThat(getBeerStats()).noneMatch(style -> "Stats Style".equals(style.beerStyle()));
+
+        // A save notified after the delete, as a write-behind flush may do, does not bring the beer back.
+        writeListeners.forEach(listener -> listener.beerSaved(saved));
+        assertThat(getBeerStats()).noneMatch(style -> "Stats Style".equals(style.beerStyle()));
+    }
+
+    private void assertBeerStatsMatchGroupBy() {
+        var stats = getBeerStats();
+        var expected = beerRepository.aggregateByStyle().collectList().block();
+
+        assertThat(stats).hasSameSizeAs(expected);
+        for (int i = 0; i < stats.size(); i++) {
+            var actual = stats.get(i);
+            var groupBy = expected.get(i);
+            assertThat(actual.beerStyle()).isEqualTo(groupBy.beerStyle());
+            assertThat(actual.count()).isEqualTo(groupBy.count());
+            assertThat(actual.totalQuantityOnHand()).isEqualTo(groupBy.totalQuantityOnHand());
+            assertThat(actual.minPrice()).isEqualByComparingTo(groupBy.minPrice());
+            assertThat(actual.maxPrice()).isEqualByComparingTo(groupBy.maxPrice());
+            assertThat(actual.avgPrice()).isEqualByComparingTo(groupBy.avgPrice().setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+
+    private List<BeerStyleStatsDTO> getBeerStats() {
+        return webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH_STATS)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BeerStyleStatsDTO.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    /**
+     * Test for the fuzzy beer search.
+     * Verifies a misspelled name still finds the beer first, that a beer renamed through the API is found by
+     * its new name only, and that a blank query is rejected.
+     */
+    @Order(28)
+    @Test
+    void test_search_beers() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(BeerController.BEER_PATH_SEARCH)
+                        .queryParam("q", "Batch Ber")
+                        .queryParam("limit", 2)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].beerName").isEqualTo("Batch Beer");
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .patch()
+                .uri(BeerController.BEER_PATH_ID, 2)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("beerName", "Quixotic Zephyr"))
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(BeerController.BEER_PATH_SEARCH)
+                        .queryParam("q", "quixotik zephyr")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(2)
+                .jsonPath("$[0].beerName").isEqualTo("Quixotic Zephyr");
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(BeerController.BEER_PATH_SEARCH)
+                        .queryParam("q", "Cache Check")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[?(@.id == 2)]").isEmpty();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(BeerController.BEER_PATH_SEARCH)
+                        .queryParam("q", " ")
+                        .build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    /**
+     * Test for the live change feed.
+     * Verifies a patch made while subscribed arrives as an UPDATED event, and that reconnecting with the
+     * Last-Event-ID header replays the events after it.
+     */
+    @Order(29)
+    @Test
+    void test_beer_changes() {
+        var eventId = new AtomicReference<String>();
+
+        StepVerifier.create(streamBeerChanges(null))
+                .assertNext(event -> assertThat(event.comment()).isEqualTo("keep-alive"))
+                .then(() -> webTestClient
+                        .mutateWith(mockOAuth2Login())
+                        .patch()
+                        .uri(BeerController.BEER_PATH_ID, 3)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(Map.of("beerName", "Sunshine Town"))
+                        .exchange()
+                        .expectStatus().isOk())
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo("UPDATED");
+                    assertThat(event.data().beerId()).isEqualTo(3);
+                    assertThat(event.data().beer().beerName()).isEqualTo("Sunshine Town");
+                    eventId.set(event.id());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        var previousId = String.valueOf(Long.parseLong(eventId.get()) - 1);
+        StepVerifier.create(streamBeerChanges(previousId))
+                .assertNext(event -> {
+                    assertThat(event.id()).isEqualTo(eventId.get());
+                    assertThat(event.data().type()).isEqualTo(BeerChangeEventDTO.Type.UPDATED);
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    /**
+     * Test for the UPC cache eviction on writes.
+     * Verifies changing the UPC of a beer evicts its old and new UPC only, so lookups by the old UPC stop
+     * finding it while other beers stay cached, and that the written beer, derived from the row as it was before
+     * the update, matches the stored row.
+     */
+    @Order(30)
+    @Test
+    void test_patch_beer_upc_evicts_only_its_upcs() {
+        var upcCache = cacheManager.getCache(CacheConfig.BEER_UPC_CACHE);
+        var oldUpc = beerRepository.findById(3).block().upc();
+        getBeerByUpc(oldUpc);
+        getBeerByUpc("129686");
+
+        var eTag = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .patch()
+                .uri(BeerController.BEER_PATH_ID, 3)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("beerName", "Renamed Ale", "upc", "900333", "price", new BigDecimal("12.345")))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .getETag();
+
+        // The written beer is derived from the row as it was before the update; it matches the stored row.
+        var stored = beerRepository.findById(3).block();
+        assertThat(eTag).isEqualTo(ETags.of(stored.version()));
+        assertThat(stored.price()).isEqualByComparingTo("12.35");
+        assertBeerStatsMatchGroupBy();
+
+        assertThat(upcCache.get(oldUpc)).isNull();
+        assertThat(upcCache.get("129686")).isNotNull();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH_UPC, oldUpc)
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH_UPC, "900333")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(3);
+    }
+
+    private Flux<ServerSentEvent<BeerChangeEventDTO>> streamBeerChanges(String lastEventId) {
+        return webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(BeerController.BEER_PATH_CHANGES)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .headers(headers -> {
+                    if (lastEventId != null) {
+                        headers.set(BeerController.LAST_EVENT_ID, lastEventId);
+                    }
+                })
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<BeerChangeEventDTO>>() {
+                })
+                .getResponseBody();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.springpracticereactive.controllers;
 
 import com.example.springpracticereactive.model.CustomerDTO;
+import com.example.springpracticereactive.model.CustomerNameDTO;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -8,8 +9,10 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockOAuth2Login;
 
@@ -194,4 +197,172 @@ class CustomerControllerTest {
                 .exchange()
                 .expectStatus().isNotFound();
     }
-}
\ No newline at end of file
+
+    /**
+     * Test for paging through customers with a cursor.
+     * Verifies the first page carries a next-page link and that following the cursor returns the rest.
+     */
+    @Order(11)
+    @Test
+    void test_list_customers_paged() {
+        var nextCursor = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(CustomerController.CUSTOMER_PATH).queryParam("limit", 2).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("link")
+                .expectBody().jsonPath("$.size()").isEqualTo(2)
+                .returnResult()
+                .getResponseHeaders().getFirst("X-Next-Cursor");
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(CustomerController.CUSTOMER_PATH)
+                        .queryParam("limit", 2)
+                        .queryParam("after", nextCursor)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("link")
+                .expectBody().jsonPath("$.size()").isEqualTo(1);
+    }
+
+    /**
+     * Test for streaming customers as Server-Sent Events.
+     * Verifies the content type and that every remaining customer arrives as its own event.
+     */
+    @Order(12)
+    @Test
+    void test_list_customers_event_stream() {
+        var result = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(CustomerController.CUSTOMER_PATH)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(CustomerDTO.class);
+
+        StepVerifier.create(result.getResponseBody())
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    /**
+     * Test for importing customers from a CSV body.
+     * Verifies valid rows are imported, invalid rows are rejected and the final progress report is complete.
+     */
+    @Order(13)
+    @Test
+    void test_import_customers_csv() {
+        var csv = """
+                customerName
+                Alice Import
+                "Import, Bob"
+                ""
+                """;
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post()
+                .uri(CustomerController.CUSTOMER_PATH_IMPORT)
+                .contentType(MediaType.parseMediaType(CustomerController.TEXT_CSV_VALUE))
+                .bodyValue(csv)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.size()").isEqualTo(2)
+                .jsonPath("$[1].rowsRead").isEqualTo(3)
+                .jsonPath("$[1].rowsImported").isEqualTo(2)
+                .jsonPath("$[1].rowsRejected").isEqualTo(1)
+                .jsonPath("$[1].complete").isEqualTo(true);
+    }
+
+    /**
+     * Test for the customer name autocomplete.
+     * Verifies prefixes match case-insensitively, including customers added by the import,
+     * that renaming and deleting a customer update the suggestions, and that a blank prefix is rejected.
+     */
+    @Order(14)
+    @Test
+    void test_autocomplete_customers() {
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(CustomerController.CUSTOMER_PATH_AUTOCOMPLETE)
+                        .queryParam("prefix", "aLiCe")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.size()").isEqualTo(1)
+                .jsonPath("$[0].customerName").isEqualTo("Alice Import");
+
+        var id = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(CustomerController.CUSTOMER_PATH_AUTOCOMPLETE)
+                        .queryParam("prefix", "import, b")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CustomerNameDTO.class)
+                .hasSize(1)
+                .returnResult()
+                .getResponseBody()
+                .getFirst()
+                .id();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .put()
+                .uri(CustomerController.CUSTOMER_PATH_ID, id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CustomerDTO("Zed Renamed"))
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(CustomerController.CUSTOMER_PATH_AUTOCOMPLETE)
+                        .queryParam("prefix", "zed")
+                        .queryParam("limit", 5)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(id)
+                .jsonPath("$[?(@.customerName == 'Import, Bob')]").isEmpty();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .delete()
+                .uri(CustomerController.CUSTOMER_PATH_ID, id)
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(CustomerController.CUSTOMER_PATH_AUTOCOMPLETE)
+                        .queryParam("prefix", "zed")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.size()").isEqualTo(0);
+
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(CustomerController.CUSTOMER_PATH_AUTOCOMPLETE)
+                        .queryParam("prefix", "  ")
+                        .build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
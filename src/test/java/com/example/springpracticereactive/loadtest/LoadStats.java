@@ -0,0 +1,85 @@
+package com.example.springpracticereactive.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe recorder of the latencies and status codes of one set of load-test requests.
+ */
+final class LoadStats {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Records a request that received a response.
+     *
+     * @param nanos  The latency of the request.
+     * @param status The HTTP status of the response.
+     */
+    void record(long nanos, int status) {
+        histogram.recordValue(Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+        if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        } else {
+            successes.increment();
+        }
+    }
+
+    /**
+     * Records a request that failed without a response, e.g. a connection error.
+     *
+     * @param nanos The time until the failure.
+     */
+    void recordFailure(long nanos) {
+        histogram.recordValue(Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+        failures.increment();
+    }
+
+    /**
+     * @return The number of requests answered with a 5xx status or failed without a response.
+     */
+    long errors() {
+        return serverErrors.sum() + failures.sum();
+    }
+
+    /**
+     * @return The number of recorded requests.
+     */
+    long count() {
+        return histogram.getTotalCount();
+    }
+
+    /**
+     * @return The percentiles and status counts recorded so far.
+     */
+    LoadTestResult.Latency toLatency() {
+        return new LoadTestResult.Latency(
+                histogram.getTotalCount(),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()),
+                successes.sum(),
+                clientErrors.sum(),
+                serverErrors.sum(),
+                failures.sum()
+        );
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
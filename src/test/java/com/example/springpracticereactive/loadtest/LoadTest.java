@@ -0,0 +1,440 @@
+package com.example.springpracticereactive.loadtest;
+
+import com.example.springpracticereactive.controllers.BeerController;
+import com.example.springpracticereactive.controllers.CustomerController;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test of the beer and customer endpoints.
+ * <p>
+ * The application is started on a random port with its H2 database. Requests are signed by a local
+ * RSA key instead of the configured issuer, and sent over real HTTP by many concurrent clients.
+ * The public key is published to the application as a local JWK set, so tokens go through the same caching
+ * decoder as in production.
+ * The test only runs when asked for, e.g.
+ * <pre>
+ * ./mvnw test -Dtest=LoadTest -Dloadtest=true -Dloadtest.requests=20000 -Dloadtest.concurrency=128
+ * </pre>
+ * Settings (system properties):
+ * <ul>
+ *     <li>{@code loadtest.requests} - measured requests, default 10000</li>
+ *     <li>{@code loadtest.warmup} - unmeasured requests sent first, default 2000</li>
+ *     <li>{@code loadtest.concurrency} - requests in flight, default 64</li>
+ *     <li>{@code loadtest.mix} - weights per method, default {@code GET=70,POST=10,PATCH=15,DELETE=5}</li>
+ *     <li>{@code loadtest.tolerance} - allowed regression against the baseline, default 0.5 (50%)</li>
+ *     <li>{@code loadtest.update-baseline} - overwrite the stored baseline with this run's result</li>
+ * </ul>
+ * The result is written to {@code target/loadtest/load-test-result.json} and compared against
+ * {@code src/test/resources/loadtest/baseline.json}.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        // Logging every request and response body would dominate what is measured.
+        properties = "logging.level.org.zalando.logbook=info"
+)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class LoadTest {
+
+    private static final Path RESULT_FILE = Path.of("target", "loadtest", "load-test-result.json");
+    private static final Path BASELINE_FILE = Path.of("src", "test", "resources", "loadtest", "baseline.json");
+    private static final String BASELINE_RESOURCE = "/loadtest/baseline.json";
+
+    /**
+     * The operations of the traffic mix.
+     */
+    enum Method {
+        GET, POST, PATCH, DELETE
+    }
+
+    /**
+     * The resources the traffic is spread over, with the ids created during the run.
+     */
+    enum Resource {
+        BEER(BeerController.BEER_PATH, BeerController.BEER_PATH_ID),
+        CUSTOMER(CustomerController.CUSTOMER_PATH, CustomerController.CUSTOMER_PATH_ID);
+
+        private final String path;
+        private final String idPath;
+        private final ConcurrentLinkedDeque<Integer> ids = new ConcurrentLinkedDeque<>();
+
+        Resource(String path, String idPath) {
+            this.path = path;
+            this.idPath = idPath;
+        }
+    }
+
+    private static final String ISSUER = "http://localhost/load-test";
+    private static final RSAKey KEY = generateKey();
+    private static final Path JWK_SET_FILE = writeJwkSet(KEY);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private WebClient webClient;
+
+    /**
+     * Makes the application accept the tokens of the local key, verifying them against its JWK set file.
+     *
+     * @param registry The registry of the properties overriding the application configuration.
+     */
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.security.oauth2.resourceserver.jwt.issuer-uri", () -> ISSUER);
+        registry.add("security.jwt.jwk-set.location", () -> JWK_SET_FILE.toUri().toString());
+        registry.add("security.jwt.jwk-set.refresh-interval", () -> "0s");
+    }
+
+    /**
+     * Deletes the JWK set file.
+     *
+     * @throws IOException if the file cannot be deleted.
+     */
+    @AfterAll
+    static void deleteJwkSet() throws IOException {
+        Files.deleteIfExists(JWK_SET_FILE);
+    }
+
+    /**
+     * Creates the client, authenticated with a token signed by the local issuer.
+     */
+    @BeforeEach
+    void setUp() {
+        var now = Instant.now();
+        var claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject("load-test")
+                .issuedAt(now)
+                .expiresAt(now.plus(Duration.ofHours(1)))
+                .build();
+        var header = JwsHeader.with(SignatureAlgorithm.RS256).keyId(KEY.getKeyID()).build();
+        var jwtEncoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(KEY)));
+        var token = jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .build();
+
+        // Put the sample data into rotation, so GETs and PATCHes have targets from the first request on.
+        for (var resource : Resource.values()) {
+            webClient.get()
+                    .uri(resource.path)
+                    .retrieve()
+                    .bodyToFlux(JsonNode.class)
+                    .map(row -> row.get("id").asInt())
+                    .doOnNext(resource.ids::offerLast)
+                    .blockLast(Duration.ofSeconds(30));
+        }
+    }
+
+    /**
+     * Drives the configured traffic mix, writes the result and checks it against the baseline.
+     *
+     * @throws IOException if the result or the baseline cannot be written or read.
+     */
+    @Test
+    void load_test() throws IOException {
+        var requests = Integer.getInteger("loadtest.requests", 10_000);
+        var warmup = Integer.getInteger("loadtest.warmup", 2_000);
+        var concurrency = Integer.getInteger("loadtest.concurrency", 64);
+        var mix = System.getProperty("loadtest.mix", "GET=70,POST=10,PATCH=15,DELETE=5");
+        var weights = parseMix(mix);
+
+        // Discard the measurements of the warm-up phase, which mostly measure JIT compilation.
+        run(warmup, concurrency, weights, new LinkedHashMap<>());
+
+        var stats = new LinkedHashMap<String, LoadStats>();
+        for (var resource : Resource.values()) {
+            for (var method : Method.values()) {
+                stats.put(method + " " + resource.name().toLowerCase(), new LoadStats());
+            }
+        }
+
+        var started = System.nanoTime();
+        var overall = run(requests, concurrency, weights, stats);
+        var durationSeconds = (System.nanoTime() - started) / (double) TimeUnit.SECONDS.toNanos(1);
+
+        var operations = new LinkedHashMap<String, LoadTestResult.Latency>();
+        stats.forEach((name, operationStats) -> {
+            if (operationStats.count() > 0) {
+                operations.put(name, operationStats.toLatency());
+            }
+        });
+
+        var result = new LoadTestResult(
+                requests,
+                concurrency,
+                mix,
+                durationSeconds,
+                overall.count() / durationSeconds,
+                overall.errors() / (double) overall.count(),
+                overall.toLatency(),
+                operations
+        );
+
+        var writer = objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT);
+        Files.createDirectories(RESULT_FILE.getParent());
+        writer.writeValue(RESULT_FILE.toFile(), result);
+
+        if (Boolean.getBoolean("loadtest.update-baseline")) {
+            writer.writeValue(BASELINE_FILE.toFile(), result);
+            return;
+        }
+
+        LoadTestResult baseline;
+        try (InputStream in = LoadTest.class.getResourceAsStream(BASELINE_RESOURCE)) {
+            assertThat(in).as("baseline " + BASELINE_RESOURCE).isNotNull();
+            baseline = objectMapper.readValue(in, LoadTestResult.class);
+        }
+
+        var tolerance = Double.parseDouble(System.getProperty("loadtest.tolerance", "0.5"));
+        assertThat(result.overall().p99Ms())
+                .as("p99 latency (ms)")
+                .isLessThanOrEqualTo(baseline.overall().p99Ms() * (1 + tolerance));
+        assertThat(result.overall().p50Ms())
+                .as("p50 latency (ms)")
+                .isLessThanOrEqualTo(baseline.overall().p50Ms() * (1 + tolerance));
+        assertThat(result.throughputPerSecond())
+                .as("throughput (requests/s)")
+                .isGreaterThanOrEqualTo(baseline.throughputPerSecond() * (1 - tolerance));
+        assertThat(result.errorRate())
+                .as("error rate")
+                .isLessThanOrEqualTo(baseline.errorRate() + 0.001);
+    }
+
+    /**
+     * Sends requests picked from the traffic mix, with at most {@code concurrency} of them in flight.
+     *
+     * @param requests    The number of requests to send.
+     * @param concurrency The number of requests in flight.
+     * @param weights     The cumulative weights of the methods, see {@link #parseMix(String)}.
+     * @param stats       The per-operation stats to record into; operations without an entry are not recorded.
+     * @return The stats over all requests.
+     */
+    private LoadStats run(int requests, int concurrency, int[] weights, Map<String, LoadStats> stats) {
+        var overall = new LoadStats();
+
+        Flux.range(0, requests)
+                .flatMap(_ -> {
+                    var random = ThreadLocalRandom.current();
+                    var resource = Resource.values()[random.nextInt(Resource.values().length)];
+                    var method = pick(weights, random.nextInt(weights[weights.length - 1]));
+                    var operationStats = stats.get(method + " " + resource.name().toLowerCase());
+                    return timed(send(resource, method), overall, operationStats);
+                }, concurrency)
+                .blockLast(Duration.ofMinutes(30));
+
+        return overall;
+    }
+
+    /**
+     * Times a request from subscription until its response has been consumed.
+     *
+     * @param request        The request, emitting the response status.
+     * @param overall        The stats over all requests.
+     * @param operationStats The stats of the operation, may be null.
+     * @return A Mono completing once the request is recorded; failures are recorded, not propagated.
+     */
+    private static Mono<Void> timed(Mono<Integer> request, LoadStats overall, LoadStats operationStats) {
+        return Mono.defer(() -> {
+            var start = System.nanoTime();
+            return request
+                    .doOnNext(status -> {
+                        var nanos = System.nanoTime() - start;
+                        overall.record(nanos, status);
+                        if (operationStats != null) {
+                            operationStats.record(nanos, status);
+                        }
+                    })
+                    .onErrorResume(_ -> {
+                        var nanos = System.nanoTime() - start;
+                        overall.recordFailure(nanos);
+                        if (operationStats != null) {
+                            operationStats.recordFailure(nanos);
+                        }
+                        return Mono.empty();
+                    })
+                    .then();
+        });
+    }
+
+    /**
+     * Sends one request of the given method to a resource.
+     * Requests targeting an existing row use the ids created by earlier POSTs, plus the sample data.
+     * Deleted ids are taken out of rotation before the DELETE is sent.
+     *
+     * @param resource The resource to send the request to.
+     * @param method   The method of the request.
+     * @return A Mono emitting the status of the response.
+     */
+    private Mono<Integer> send(Resource resource, Method method) {
+        if (method == Method.POST) {
+            return webClient.post()
+                    .uri(resource.path)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(newBody(resource))
+                    .exchangeToMono(response -> {
+                        var location = response.headers().asHttpHeaders().getLocation();
+                        if (location != null) {
+                            var path = location.getPath();
+                            resource.ids.offerLast(Integer.valueOf(path.substring(path.lastIndexOf('/') + 1)));
+                        }
+                        return statusOf(response);
+                    });
+        }
+
+        var id = method == Method.DELETE ? resource.ids.pollFirst() : rotate(resource.ids);
+        if (id == null) {
+            // Nothing to target yet: read the first page instead.
+            return webClient.get()
+                    .uri(resource.path)
+                    .exchangeToMono(LoadTest::statusOf);
+        }
+
+        return switch (method) {
+            case GET -> webClient.get()
+                    .uri(resource.idPath, id)
+                    .exchangeToMono(LoadTest::statusOf);
+            case PATCH -> webClient.patch()
+                    .uri(resource.idPath, id)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(patchBody(resource))
+                    .exchangeToMono(LoadTest::statusOf);
+            case DELETE -> webClient.delete()
+                    .uri(resource.idPath, id)
+                    .exchangeToMono(LoadTest::statusOf);
+            case POST -> throw new IllegalStateException("POST is handled above");
+        };
+    }
+
+    /**
+     * Picks the next id round-robin, keeping it in rotation.
+     *
+     * @param ids The ids of a resource.
+     * @return The id, or null if there is none.
+     */
+    private static Integer rotate(ConcurrentLinkedDeque<Integer> ids) {
+        var id = ids.pollFirst();
+        if (id != null) {
+            ids.offerLast(id);
+        }
+        return id;
+    }
+
+    private Map<String, Object> newBody(Resource resource) {
+        var n = sequence.incrementAndGet();
+        return switch (resource) {
+            case BEER -> Map.of(
+                    "beerName", "Load Beer " + n,
+                    "beerStyle", "IPA",
+                    "upc", "LT" + n,
+                    "quantityOnHand", "10",
+                    "price", 9
+            );
+            case CUSTOMER -> Map.of("customerName", "Load Customer " + n);
+        };
+    }
+
+    private Map<String, Object> patchBody(Resource resource) {
+        var n = sequence.incrementAndGet();
+        return switch (resource) {
+            case BEER -> Map.of("beerName", "Load Patched " + n);
+            case CUSTOMER -> Map.of("customerName", "Load Patched " + n);
+        };
+    }
+
+    private static Mono<Integer> statusOf(ClientResponse response) {
+        return response.releaseBody().thenReturn(response.statusCode().value());
+    }
+
+    /**
+     * Parses a traffic mix such as {@code GET=70,POST=10,PATCH=15,DELETE=5}.
+     *
+     * @param mix The traffic mix; methods left out get no traffic.
+     * @return The cumulative weights, indexed by {@link Method#ordinal()}.
+     */
+    private static int[] parseMix(String mix) {
+        var weights = new int[Method.values().length];
+        for (var entry : mix.split(",")) {
+            var parts = entry.split("=");
+            weights[Method.valueOf(parts[0].trim().toUpperCase()).ordinal()] = Integer.parseInt(parts[1].trim());
+        }
+        for (var i = 1; i < weights.length; i++) {
+            weights[i] += weights[i - 1];
+        }
+        assertThat(weights[weights.length - 1]).as("total weight of " + mix).isPositive();
+        return weights;
+    }
+
+    private static Method pick(int[] cumulativeWeights, int value) {
+        for (var i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return Method.values()[i];
+            }
+        }
+        return Method.values()[cumulativeWeights.length - 1];
+    }
+
+    private static RSAKey generateKey() {
+        try {
+            return new RSAKeyGenerator(2048).keyID("load-test").generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Path writeJwkSet(RSAKey key) {
+        try {
+            var file = Files.createTempFile("load-test-jwks", ".json");
+            // JWKSet.toString() only serializes the public half of the key.
+            Files.writeString(file, new JWKSet(key).toString());
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
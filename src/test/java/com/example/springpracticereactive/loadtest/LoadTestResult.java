@@ -0,0 +1,68 @@
+package com.example.springpracticereactive.loadtest;
+
+import java.util.Map;
+
+/**
+ * The outcome of one load-test run, written as JSON and compared against the stored baseline.
+ * Latencies are in milliseconds, measured from sending a request until its response body was consumed.
+ */
+public record LoadTestResult(
+
+        /**
+         * The number of measured requests.
+         */
+        int requests,
+
+        /**
+         * The number of requests in flight at any time.
+         */
+        int concurrency,
+
+        /**
+         * The traffic mix, as weights per HTTP method.
+         */
+        String mix,
+
+        /**
+         * The wall-clock duration of the measured phase in seconds.
+         */
+        double durationSeconds,
+
+        /**
+         * The completed requests per second.
+         */
+        double throughputPerSecond,
+
+        /**
+         * The fraction of requests answered with a 5xx status or failed without a response.
+         */
+        double errorRate,
+
+        /**
+         * The latency percentiles and status counts over all requests.
+         */
+        Latency overall,
+
+        /**
+         * The latency percentiles and status counts per operation, e.g. {@code "GET beer"}.
+         */
+        Map<String, Latency> operations
+) {
+
+    /**
+     * Latency percentiles and status counts of a set of requests.
+     */
+    public record Latency(
+            long count,
+            double p50Ms,
+            double p90Ms,
+            double p99Ms,
+            double p999Ms,
+            double maxMs,
+            long successes,
+            long clientErrors,
+            long serverErrors,
+            long failures
+    ) {
+    }
+}
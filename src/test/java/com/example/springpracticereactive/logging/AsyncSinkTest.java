@@ -0,0 +1,73 @@
+package com.example.springpracticereactive.logging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for AsyncSink.
+ * Uses a delegate that can be held up, to fill the queue.
+ */
+class AsyncSinkTest {
+
+    /**
+     * Verifies entries beyond the queue capacity are dropped and counted while the writer is busy,
+     * and that the queued entries are written on close.
+     */
+    @Test
+    void test_full_queue_drops_and_counts() throws Exception {
+        var release = new CountDownLatch(1);
+        var writing = new CountDownLatch(1);
+        var written = new AtomicInteger();
+        var delegate = new Sink() {
+            @Override
+            public void write(Precorrelation precorrelation, HttpRequest request) {
+            }
+
+            @Override
+            public void write(Correlation correlation, HttpRequest request, HttpResponse response) {
+            }
+
+            @Override
+            public void writeBoth(Correlation correlation, HttpRequest request, HttpResponse response)
+                    throws IOException {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                written.incrementAndGet();
+            }
+        };
+        var meterRegistry = new SimpleMeterRegistry();
+        var sink = new AsyncSink(delegate, 2, meterRegistry);
+
+        // The first entry is taken by the writer and blocks it, the next two fill the queue.
+        sink.writeBoth(null, null, null);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        sink.writeBoth(null, null, null);
+        sink.writeBoth(null, null, null);
+        sink.writeBoth(null, null, null);
+
+        assertThat(meterRegistry.get("logbook.sink.dropped").functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("logbook.sink.queue.size").gauge().value()).isEqualTo(2.0);
+
+        release.countDown();
+        sink.close();
+
+        assertThat(written).hasValue(3);
+    }
+}
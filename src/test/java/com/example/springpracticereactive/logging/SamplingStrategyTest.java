@@ -0,0 +1,111 @@
+package com.example.springpracticereactive.logging;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpHeaders;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Logbook;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for SamplingStrategy.
+ * Runs exchanges through a real Logbook, so the strategy sees the requests as wrapped by Logbook's later phases.
+ */
+class SamplingStrategyTest {
+
+    private static final Duration SLOW_THRESHOLD = Duration.ofHours(1);
+
+    private final AtomicInteger written = new AtomicInteger();
+
+    private final Sink sink = new Sink() {
+        @Override
+        public void write(Precorrelation precorrelation, HttpRequest request) {
+        }
+
+        @Override
+        public void write(Correlation correlation, HttpRequest request, HttpResponse response) {
+        }
+
+        @Override
+        public void writeBoth(Correlation correlation, HttpRequest request, HttpResponse response) {
+            written.incrementAndGet();
+        }
+    };
+
+    /**
+     * Verifies sampled exchanges have both bodies captured and are written.
+     */
+    @Test
+    void test_sampled_exchange_is_written_with_bodies() throws IOException {
+        var request = request();
+        var response = response(200);
+
+        exchange(1.0, request, response);
+
+        verify(request).withBody();
+        verify(response).withBody();
+        assertThat(written).hasValue(1);
+    }
+
+    /**
+     * Verifies exchanges outside the sample never have their bodies captured, that successful ones are dropped
+     * and that failed ones are still written.
+     */
+    @Test
+    void test_unsampled_exchange_captures_no_body() throws IOException {
+        var request = request();
+        var response = response(200);
+        var failedRequest = request();
+        var failedResponse = response(500);
+
+        exchange(0.0, request, response);
+        exchange(0.0, failedRequest, failedResponse);
+
+        verify(request, never()).withBody();
+        verify(failedRequest, never()).withBody();
+        verify(response, never()).withBody();
+        verify(failedResponse, never()).withBody();
+        assertThat(written).hasValue(1);
+    }
+
+    private void exchange(double sampleRate, HttpRequest request, HttpResponse response) throws IOException {
+        var logbook = Logbook.builder()
+                .strategy(new SamplingStrategy(sampleRate, SLOW_THRESHOLD, -1))
+                .sink(sink)
+                .build();
+        logbook.process(request).write().process(response).write();
+    }
+
+    private static HttpRequest request() throws IOException {
+        var request = mock(HttpRequest.class);
+        when(request.getPath()).thenReturn("/api/v2/beer");
+        when(request.getQuery()).thenReturn("");
+        when(request.getHeaders()).thenReturn(HttpHeaders.empty());
+        when(request.getBody()).thenReturn(new byte[0]);
+        when(request.withBody()).thenReturn(request);
+        when(request.withoutBody()).thenReturn(request);
+        return request;
+    }
+
+    private static HttpResponse response(int status) throws IOException {
+        var response = mock(HttpResponse.class);
+        when(response.getStatus()).thenReturn(status);
+        when(response.getHeaders()).thenReturn(HttpHeaders.empty());
+        when(response.getBody()).thenReturn(new byte[0]);
+        when(response.withBody()).thenReturn(response);
+        when(response.withoutBody()).thenReturn(response);
+        return response;
+    }
+}
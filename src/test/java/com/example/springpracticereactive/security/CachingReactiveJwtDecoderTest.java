@@ -0,0 +1,116 @@
+package com.example.springpracticereactive.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for CachingReactiveJwtDecoder.
+ * Uses a stub delegate that counts how often a token is really verified.
+ */
+class CachingReactiveJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private final AtomicInteger verifications = new AtomicInteger();
+    private final Sinks.One<Jwt> pendingVerification = Sinks.one();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CachingReactiveJwtDecoder decoder;
+
+    /**
+     * Creates a decoder whose delegate accepts "valid" and "expired" tokens, completes "pending" tokens by hand
+     * and rejects everything else.
+     */
+    @BeforeEach
+    void setUp() {
+        ReactiveJwtDecoder delegate = token -> {
+            verifications.incrementAndGet();
+            return switch (token) {
+                case "valid" -> Mono.just(jwt(token, NOW.plus(Duration.ofHours(1))));
+                case "expired" -> Mono.just(jwt(token, NOW.minusSeconds(1)));
+                case "pending" -> pendingVerification.asMono();
+                default -> Mono.error(new IllegalArgumentException("bad token"));
+            };
+        };
+        decoder = new CachingReactiveJwtDecoder(delegate, 100, Duration.ofMinutes(5), meterRegistry,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    /**
+     * Verifies a token is verified once and then served from the cache, and that hits are counted.
+     */
+    @Test
+    void test_decode_caches_verified_token() {
+        StepVerifier.create(decoder.decode("valid")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(decoder.decode("valid")).expectNextCount(1).verifyComplete();
+
+        assertThat(verifications).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets")
+                .tag("cache", CachingReactiveJwtDecoder.CACHE_NAME)
+                .tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    /**
+     * Verifies tokens past their exp and rejected tokens are verified on every use.
+     */
+    @Test
+    void test_decode_does_not_cache_expired_or_rejected_tokens() {
+        StepVerifier.create(decoder.decode("expired")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(decoder.decode("expired")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(decoder.decode("forged")).verifyError(IllegalArgumentException.class);
+        StepVerifier.create(decoder.decode("forged")).verifyError(IllegalArgumentException.class);
+
+        assertThat(verifications).hasValue(4);
+    }
+
+    /**
+     * Verifies a key change drops the cached tokens.
+     */
+    @Test
+    void test_jwk_set_change_invalidates_cache() {
+        StepVerifier.create(decoder.decode("valid")).expectNextCount(1).verifyComplete();
+
+        decoder.onApplicationEvent(new JwkSetChangedEvent(this));
+
+        StepVerifier.create(decoder.decode("valid")).expectNextCount(1).verifyComplete();
+        assertThat(verifications).hasValue(2);
+    }
+
+    /**
+     * Verifies a verification running while the keys change does not put its result back into the cleared cache.
+     */
+    @Test
+    void test_verification_running_across_invalidation_is_not_cached() {
+        var running = decoder.decode("pending").toFuture();
+
+        decoder.invalidateAll();
+        pendingVerification.tryEmitValue(jwt("pending", NOW.plus(Duration.ofHours(1))));
+        assertThat(running.join().getTokenValue()).isEqualTo("pending");
+
+        decoder.decode("pending").subscribe();
+        assertThat(verifications).hasValue(2);
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("test")
+                .issuedAt(expiresAt.minus(Duration.ofHours(2)))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
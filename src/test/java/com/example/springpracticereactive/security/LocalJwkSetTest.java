@@ -0,0 +1,108 @@
+package com.example.springpracticereactive.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for LocalJwkSet.
+ * Signs tokens with generated RSA keys and rotates the JWK set file between decodes.
+ */
+class LocalJwkSetTest {
+
+    private static final String ISSUER = "http://localhost:9000";
+
+    @TempDir
+    Path tempDir;
+
+    private Path jwkSetFile;
+    private final List<Object> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jwkSetFile = tempDir.resolve("jwks.json");
+    }
+
+    /**
+     * Verifies tokens signed with the loaded key are accepted, and rejected once the key was rotated out.
+     */
+    @Test
+    void test_refresh_swaps_keys_and_publishes_event() throws Exception {
+        var oldKey = generateKey("old");
+        var newKey = generateKey("new");
+        write(oldKey);
+
+        var jwkSet = new LocalJwkSet(new FileSystemResource(jwkSetFile), Duration.ZERO, events::add);
+        jwkSet.afterPropertiesSet();
+        var decoder = jwkSet.decoder(ISSUER);
+        var token = sign(oldKey);
+
+        StepVerifier.create(decoder.decode(token)).expectNextCount(1).verifyComplete();
+
+        write(newKey);
+        StepVerifier.create(jwkSet.refresh()).expectNext(true).verifyComplete();
+
+        StepVerifier.create(decoder.decode(token)).verifyError(JwtException.class);
+        StepVerifier.create(decoder.decode(sign(newKey))).expectNextCount(1).verifyComplete();
+        assertThat(events).singleElement().isInstanceOf(JwkSetChangedEvent.class);
+    }
+
+    /**
+     * Verifies a refresh that reads an unchanged or unreadable set keeps the current keys without an event.
+     */
+    @Test
+    void test_refresh_keeps_keys_when_unchanged_or_unreadable() throws Exception {
+        var key = generateKey("only");
+        write(key);
+
+        var jwkSet = new LocalJwkSet(new FileSystemResource(jwkSetFile), Duration.ZERO, events::add);
+        jwkSet.afterPropertiesSet();
+
+        StepVerifier.create(jwkSet.refresh()).expectNext(false).verifyComplete();
+
+        Files.writeString(jwkSetFile, "not a jwk set");
+        StepVerifier.create(jwkSet.refresh()).expectNext(false).verifyComplete();
+
+        StepVerifier.create(jwkSet.decoder(ISSUER).decode(sign(key))).expectNextCount(1).verifyComplete();
+        assertThat(events).isEmpty();
+    }
+
+    private void write(RSAKey key) throws Exception {
+        Files.writeString(jwkSetFile, new JWKSet(key).toString());
+    }
+
+    private static RSAKey generateKey(String keyId) throws JOSEException {
+        return new RSAKeyGenerator(2048).keyID(keyId).generate();
+    }
+
+    private static String sign(RSAKey key) {
+        var encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key)));
+        var now = Instant.now();
+        var claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject("test")
+                .issuedAt(now)
+                .expiresAt(now.plus(Duration.ofMinutes(5)))
+                .build();
+        var header = JwsHeader.with(SignatureAlgorithm.RS256).keyId(key.getKeyID()).build();
+        return encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.springpracticereactive.services.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for SingleFlight.
+ * Uses calls completed by hand, so that lookups overlap deterministically.
+ */
+class SingleFlightTest {
+
+    /**
+     * Verifies concurrent lookups of one key share a single call, that the entry is removed once it completes,
+     * and that the saved calls are counted.
+     */
+    @Test
+    void test_concurrent_lookups_share_one_call() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var singleFlight = new SingleFlight<Integer, String>("test", meterRegistry);
+        var calls = new AtomicInteger();
+        var result = Sinks.<String>one();
+
+        var first = singleFlight.execute(1, () -> {
+            calls.incrementAndGet();
+            return result.asMono();
+        }).toFuture();
+        var second = singleFlight.execute(1, () -> {
+            calls.incrementAndGet();
+            return Mono.just("unexpected");
+        }).toFuture();
+
+        assertThat(singleFlight.inFlight()).isEqualTo(1);
+        result.tryEmitValue("beer");
+
+        assertThat(first.join()).isEqualTo("beer");
+        assertThat(second.join()).isEqualTo("beer");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(singleFlight.inFlight()).isZero();
+        assertThat(meterRegistry.get(SingleFlight.CALLS).tag("outcome", "executed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(SingleFlight.CALLS).tag("outcome", "coalesced").counter().count()).isEqualTo(1);
+
+        // The completed call is not reused.
+        StepVerifier.create(singleFlight.execute(1, () -> Mono.just("fresh")))
+                .expectNext("fresh")
+                .verifyComplete();
+    }
+
+    /**
+     * Verifies a lookup made after forget starts a new call while the earlier one is still running,
+     * and that the earlier call ending does not remove the new entry.
+     */
+    @Test
+    void test_forget_detaches_running_call() {
+        var singleFlight = new SingleFlight<Integer, String>("test", new SimpleMeterRegistry());
+        var stale = Sinks.<String>one();
+        var fresh = Sinks.<String>one();
+
+        var before = singleFlight.execute(1, stale::asMono).toFuture();
+        singleFlight.forget(1);
+        var after = singleFlight.execute(1, fresh::asMono).toFuture();
+
+        stale.tryEmitValue("old");
+        assertThat(before.join()).isEqualTo("old");
+        assertThat(singleFlight.inFlight()).isEqualTo(1);
+
+        fresh.tryEmitValue("new");
+        assertThat(after.join()).isEqualTo("new");
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    /**
+     * Verifies an empty result and an error are shared with the lookups that joined the call,
+     * and do not leave an entry behind.
+     */
+    @Test
+    void test_empty_and_error_are_shared() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var singleFlight = new SingleFlight<Integer, String>("test", meterRegistry);
+        var calls = new AtomicInteger();
+        var empty = Sinks.<String>one();
+        var error = Sinks.<String>one();
+
+        var firstEmpty = singleFlight.execute(1, () -> {
+            calls.incrementAndGet();
+            return empty.asMono();
+        }).toFuture();
+        var secondEmpty = singleFlight.execute(1, () -> {
+            calls.incrementAndGet();
+            return Mono.just("unexpected");
+        }).toFuture();
+        var firstError = singleFlight.execute(2, () -> {
+            calls.incrementAndGet();
+            return error.asMono();
+        }).toFuture();
+        var secondError = singleFlight.execute(2, () -> {
+            calls.incrementAndGet();
+            return Mono.just("unexpected");
+        }).toFuture();
+
+        assertThat(singleFlight.inFlight()).isEqualTo(2);
+        empty.tryEmitEmpty();
+        error.tryEmitError(new IllegalStateException("down"));
+
+        assertThat(firstEmpty.join()).isNull();
+        assertThat(secondEmpty.join()).isNull();
+        assertThat(firstError).failsWithin(Duration.ofSeconds(5))
+                .withThrowableThat().withCauseInstanceOf(IllegalStateException.class);
+        assertThat(secondError).failsWithin(Duration.ofSeconds(5))
+                .withThrowableThat().withCauseInstanceOf(IllegalStateException.class);
+        // One call per key, each joined by the second lookup.
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(singleFlight.inFlight()).isZero();
+        assertThat(meterRegistry.get(SingleFlight.CALLS).tag("outcome", "executed").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(SingleFlight.CALLS).tag("outcome", "coalesced").counter().count()).isEqualTo(2);
+    }
+}